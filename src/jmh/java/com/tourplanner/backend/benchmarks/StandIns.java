@@ -0,0 +1,30 @@
+package com.tourplanner.backend.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory implementations of repository and other interfaces for benchmarks that should not measure a
+ * database. Only the given methods are implemented, calling any other one fails.
+ */
+public final class StandIns {
+
+    private StandIns() {
+    }
+
+    public static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            return switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "stand-in " + type.getSimpleName();
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        }));
+    }
+}
@@ -0,0 +1,118 @@
+package com.tourplanner.backend.benchmarks;
+
+import com.tourplanner.backend.dtos.CreateTourDto;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+import com.tourplanner.backend.entities.TourEntity;
+import com.tourplanner.backend.entities.TourLogEntity;
+import com.tourplanner.backend.entities.TourStatsEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates the same tours and logs on every run, so results of different versions can be compared.
+ */
+public final class SyntheticData {
+    private static final long SEED = 20250525L;
+
+    private static final String[] CITIES = {"Vienna", "Graz", "Linz", "Salzburg", "Innsbruck", "Klagenfurt",
+            "Bregenz", "Sankt Pölten", "Wiener Neustadt", "Villach"};
+    private static final String[] TRANSPORT_TYPES = {"driving-car", "driving-hgv", "cycling-regular",
+            "cycling-mountain", "cycling-electric", "foot-walking", "foot-hiking"};
+    private static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+
+    private SyntheticData() {
+    }
+
+    public static List<CreateTourDto> createTourDtos(int count) {
+        Random random = new Random(SEED);
+        List<CreateTourDto> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dtos.add(new CreateTourDto("Tour " + i, "Synthetic tour number " + i, location(random),
+                    location(random), pick(random, TRANSPORT_TYPES), distance(random), time(random)));
+        }
+        return dtos;
+    }
+
+    /**
+     * Returns tours with the ids 1 to count, as if they had been read from the database.
+     */
+    public static List<TourEntity> tours(int count) {
+        List<TourEntity> tours = new ArrayList<>(count);
+        long id = 1;
+        for (CreateTourDto dto : createTourDtos(count)) {
+            TourEntity tour = new TourEntity(dto.getName(), dto.getDescription(), dto.getFrom(), dto.getTo(),
+                    dto.getTransportType(), dto.getDistance(), dto.getEstTime());
+            tour.setId(id++);
+            tours.add(tour);
+        }
+        return tours;
+    }
+
+    public static Map<Long, TourStatsEntity> stats(List<TourEntity> tours, int logsPerTour) {
+        Random random = new Random(SEED);
+        Map<Long, TourStatsEntity> stats = new HashMap<>();
+        for (TourEntity tour : tours) {
+            stats.put(tour.getId(), new TourStatsEntity(tour.getId(), logsPerTour,
+                    (long) logsPerTour * (1 + random.nextInt(5)), logsPerTour * 10.0, logsPerTour * 1.5,
+                    FIRST_DATE.atStartOfDay()));
+        }
+        return stats;
+    }
+
+    public static List<CreateTourLogDto> createTourLogDtos(int count) {
+        Random random = new Random(SEED);
+        List<CreateTourLogDto> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dtos.add(new CreateTourLogDto(date(random).toString(), "Synthetic log number " + i,
+                    pick(random, DIFFICULTIES), distance(random), time(random), 1 + random.nextInt(5)));
+        }
+        return dtos;
+    }
+
+    public static List<TourLogEntity> tourLogs(TourEntity tour, int count) {
+        Random random = new Random(SEED + tour.getId());
+        List<TourLogEntity> logs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TourLogEntity log = new TourLogEntity(date(random).atStartOfDay(), "Synthetic log number " + i,
+                    pick(random, DIFFICULTIES), distance(random), time(random), 1 + random.nextInt(5), tour);
+            log.setId(tour.getId() * count + i);
+            logs.add(log);
+        }
+        return logs;
+    }
+
+    public static List<String> dates(int count) {
+        Random random = new Random(SEED);
+        List<String> dates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dates.add(date(random).toString());
+        }
+        return dates;
+    }
+
+    private static String location(Random random) {
+        return pick(random, CITIES) + ", Austria";
+    }
+
+    private static float distance(Random random) {
+        return Math.round(random.nextFloat() * 50000) / 100f;
+    }
+
+    private static float time(Random random) {
+        return Math.round(random.nextFloat() * 1000) / 100f;
+    }
+
+    private static LocalDate date(Random random) {
+        return FIRST_DATE.plusDays(random.nextInt(5 * 365));
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,64 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.CreateTourDto;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The validators of {@link TourService} before {@code TourValidator} replaced them, kept as the baseline of
+ * {@link ValidationBenchmark}.
+ */
+final class LegacyValidators {
+
+    private LegacyValidators() {
+    }
+
+    static boolean isCreateTourDtoValid(CreateTourDto dto) {
+        String transportType = dto.getTransportType();
+        if (dto.getName().isEmpty() || dto.getDescription().isEmpty() || dto.getFrom().isEmpty() || dto.getTo().isEmpty() || transportType.isEmpty()) {
+            return false;
+        }
+        if (!"driving-car".equals(transportType) && !"driving-hgv".equals(transportType) && !"cycling-regular".equals(transportType) && !"cycling-mountain".equals(transportType) && !"cycling-electric".equals(transportType) && !"foot-walking".equals(transportType) && !"foot-hiking".equals(transportType)) {
+            return false;
+        }
+        if (dto.getDistance() < 0) {
+            return false;
+        }
+        if (dto.getEstTime() < 0) {
+            return false;
+        }
+        String cityCountryValidationRegex = "^[A-Z][a-zA-ZäöüÄÖÜß\\s'-]+,\\s[A-Z][a-zA-ZäöüÄÖÜß\\s'-]+$";
+        if (!dto.getFrom().matches(cityCountryValidationRegex) || !dto.getTo().matches(cityCountryValidationRegex)) {
+            return false;
+        }
+        return true;
+    }
+
+    static boolean isCreateTourLogDtoValid(CreateTourLogDto dto) {
+        String difficulty = dto.getDifficulty();
+        if (dto.getComment().isEmpty()) {
+            return false;
+        }
+        if (!"Easy".equals(difficulty) && !"Medium".equals(difficulty) && !"Hard".equals(difficulty)) {
+            return false;
+        }
+        if (dto.getRating() < 1 || dto.getRating() > 5) {
+            return false;
+        }
+        if (dto.getTotalTime() < 0) {
+            return false;
+        }
+        if (dto.getTotalDistance() < 0) {
+            return false;
+        }
+        return true;
+    }
+
+    static LocalDateTime parseDateTimeOrThrow(String input) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        return LocalDate.parse(input, formatter).atStartOfDay();
+    }
+}
@@ -0,0 +1,121 @@
+package com.tourplanner.backend.services;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Latency of a request that logs like {@link TourService#deleteTour}, once through the former synchronous file
+ * appender with location lookup and once through asynchronous loggers, with concatenated and with parameterized
+ * messages. {@link #withoutLogging} is the request alone, the difference to it is the cost of logging. The
+ * console appender is left out, since it would write into the benchmark output. Run with {@code -prof gc} to
+ * compare the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final int SAMPLES = 1024;
+    // stands in for the work of a request, slow enough that the asynchronous appender keeps up
+    private static final long REQUEST_WORK = 2_000;
+
+    public enum Pipeline {
+        SYNCHRONOUS_WITH_LOCATION,
+        ASYNCHRONOUS
+    }
+
+    @Param
+    Pipeline pipeline;
+
+    private Path directory;
+    private LoggerContext context;
+    private Logger logger;
+    private Long[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logging-benchmark");
+        context = pipeline == Pipeline.ASYNCHRONOUS
+                ? new AsyncLoggerContext("LoggingBenchmark")
+                : new LoggerContext("LoggingBenchmark");
+        context.start(configuration());
+        logger = context.getLogger(TourService.class.getName());
+        // boxed like the ids most service methods get, and outside the cache of small values
+        ids = LongStream.range(1_000, 1_000 + SAMPLES).boxed().toArray(Long[]::new);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.stop();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * The file appender of log4j2.xml before and after switching to asynchronous loggers. Rolling over does
+     * not happen within a run, so a plain random access file stands in for the rolling one.
+     */
+    private Configuration configuration() {
+        boolean async = pipeline == Pipeline.ASYNCHRONOUS;
+        ConfigurationBuilder<BuiltConfiguration> builder = ConfigurationBuilderFactory.newConfigurationBuilder();
+        builder.setConfigurationName("LoggingBenchmark");
+        builder.add(builder.newAppender("File", async ? "RandomAccessFile" : "File")
+                .addAttribute("fileName", directory.resolve("tourplanner.log").toString())
+                .addAttribute("immediateFlush", !async)
+                .add(builder.newLayout("PatternLayout").addAttribute("pattern", async
+                        ? "%d{yyyy-MM-dd HH:mm:ss} %-5p %c{1} - %m%n"
+                        : "%d{yyyy-MM-dd HH:mm:ss} %-5p %c{1}:%L - %m%n")));
+        builder.add(builder.newRootLogger(Level.INFO)
+                .addAttribute("includeLocation", !async)
+                .add(builder.newAppenderRef("File")));
+        return builder.build();
+    }
+
+    private Long nextId() {
+        next = (next + 1) & (SAMPLES - 1);
+        return ids[next];
+    }
+
+    @Benchmark
+    public void withoutLogging() {
+        Blackhole.consumeCPU(REQUEST_WORK);
+    }
+
+    @Benchmark
+    public void concatenatedMessages() {
+        Long id = nextId();
+        logger.info("Deleting Tour with id " + id);
+        Blackhole.consumeCPU(REQUEST_WORK);
+        logger.info("Deleted Tour with id " + id);
+    }
+
+    @Benchmark
+    public void parameterizedMessages() {
+        Long id = nextId();
+        logger.info("Deleting Tour with id {}", id);
+        Blackhole.consumeCPU(REQUEST_WORK);
+        logger.info("Deleted Tour with id {}", id);
+    }
+}
@@ -0,0 +1,72 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.benchmarks.StandIns;
+import com.tourplanner.backend.benchmarks.SyntheticData;
+import com.tourplanner.backend.entities.TourEntity;
+import com.tourplanner.backend.entities.TourLogEntity;
+import com.tourplanner.backend.repositories.TourExportRow;
+import com.tourplanner.backend.repositories.TourRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the report of all tours from in-memory repositories into a discarding stream. The fragment cache
+ * holds nothing, so every tour is rendered on every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportBenchmark {
+    private static final int LOGS_PER_TOUR = 5;
+
+    @Param({"10", "1000", "100000"})
+    int tours;
+
+    // threads building the sections of the tours
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    private TourReportService tourReportService;
+
+    @Setup
+    public void setUp() {
+        Map<Long, List<TourExportRow>> rowsByTour = new LinkedHashMap<>();
+        for (TourEntity tour : SyntheticData.tours(tours)) {
+            List<TourExportRow> rows = new ArrayList<>();
+            for (TourLogEntity log : SyntheticData.tourLogs(tour, LOGS_PER_TOUR)) {
+                rows.add(new TourExportRow(tour.getId(), tour.getName(), tour.getDescription(),
+                        tour.getStartLocation(), tour.getEndLocation(), tour.getTransportType(), tour.getDistance(),
+                        tour.getEstimatedTime(), log.getId(), log.getDateTime(), log.getComment(),
+                        log.getDifficulty(), log.getTotalDistance(), log.getTotalTime(), log.getRating()));
+            }
+            rowsByTour.put(tour.getId(), rows);
+        }
+        TourRepository tourRepository = StandIns.of(TourRepository.class, Map.of(
+                "streamAllIds", args -> rowsByTour.keySet().stream(),
+                "streamExportRows", args -> ((Collection<?>) args[0]).stream()
+                        .flatMap(id -> rowsByTour.get((Long) id).stream())
+        ));
+        EntityManager entityManager = StandIns.of(EntityManager.class, Map.of("clear", args -> null));
+        tourReportService = new TourReportService(tourRepository, entityManager,
+                new ReportFragmentCache(DataSize.ofBytes(0), 0), new SimpleMeterRegistry(), parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tourReportService.shutdown();
+    }
+
+    @Benchmark
+    public void writeAllToursPdf() {
+        tourReportService.writeAllToursPdf(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,63 @@
+package com.tourplanner.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tourplanner.backend.benchmarks.SyntheticData;
+import com.tourplanner.backend.dtos.TourDto;
+import com.tourplanner.backend.entities.TourEntity;
+import com.tourplanner.backend.entities.TourStatsEntity;
+import com.tourplanner.backend.repositories.TourRow;
+import com.tourplanner.backend.validation.TourValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of tours to DTOs and their JSON serialization, without a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TourMappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int tours;
+
+    private TourService tourService;
+    private ObjectMapper objectMapper;
+    private List<TourRow> rows;
+    private Map<Long, TourStatsEntity> stats;
+    private List<TourDto> dtos;
+
+    @Setup
+    public void setUp() {
+        tourService = new TourService(null, null, null, null, null, null, new TourCache(1, 1, Duration.ZERO),
+                new TourValidator());
+        objectMapper = new ObjectMapper();
+        List<TourEntity> entities = SyntheticData.tours(tours);
+        rows = entities.stream().map(TourRow::of).toList();
+        stats = SyntheticData.stats(entities, 7);
+        dtos = tourService.toDtos(rows, stats);
+    }
+
+    @Benchmark
+    public TourDto toDto() {
+        TourRow row = rows.get(0);
+        return tourService.toDto(row, stats.get(row.id()));
+    }
+
+    @Benchmark
+    public List<TourDto> toDtos() {
+        return tourService.toDtos(rows, stats);
+    }
+
+    @Benchmark
+    public byte[] serializeTourDtos() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.BackendApplication;
+import com.tourplanner.backend.benchmarks.SyntheticData;
+import com.tourplanner.backend.dtos.TourLogPageDto;
+import com.tourplanner.backend.dtos.TourLogQueryDto;
+import com.tourplanner.backend.dtos.TourPageDto;
+import com.tourplanner.backend.dtos.TourQueryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link TourService} through the whole persistence stack, against an in-memory H2 database
+ * filled with synthetic tours and logs. The tour cache is cleared before every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TourReadBenchmark {
+    private static final int LOGS_PER_TOUR = 20;
+
+    @Param({"1000"})
+    int tours;
+
+    private ConfigurableApplicationContext context;
+    private TourService tourService;
+    private TourCache tourCache;
+    private Long tourId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=warn"
+                )
+                .run();
+        tourService = context.getBean(TourService.class);
+        tourCache = context.getBean(TourCache.class);
+        tourService.createTours(SyntheticData.createTourDtos(tours));
+        List<Long> tourIds = tourService.getTours(new TourQueryDto()).getItems().stream()
+                .map(tour -> tour.getId())
+                .toList();
+        tourId = tourIds.get(0);
+        tourService.createTourLogs(tourId, SyntheticData.createTourLogDtos(LOGS_PER_TOUR));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TourPageDto getTours() {
+        tourCache.invalidateAll();
+        return tourService.getTours(new TourQueryDto());
+    }
+
+    @Benchmark
+    public TourLogPageDto getTourLogs() {
+        return tourService.getTourLogs(tourId, new TourLogQueryDto());
+    }
+}
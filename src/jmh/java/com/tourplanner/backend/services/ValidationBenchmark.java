@@ -0,0 +1,91 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.benchmarks.SyntheticData;
+import com.tourplanner.backend.dtos.CreateTourDto;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+import com.tourplanner.backend.dtos.UpdateTourDto;
+import com.tourplanner.backend.validation.TourValidator;
+import com.tourplanner.backend.validation.Violation;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of single incoming DTOs, as done once per request, against the validators that were replaced by
+ * {@link TourValidator}. Run with {@code -prof gc} to compare the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private static final int SAMPLES = 1024;
+
+    private TourService tourService;
+    private TourValidator tourValidator;
+    private CreateTourDto[] createTourDtos;
+    private UpdateTourDto[] updateTourDtos;
+    private CreateTourLogDto[] createTourLogDtos;
+    private String[] dates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tourValidator = new TourValidator();
+        tourService = new TourService(null, null, null, null, null, null, new TourCache(1, 1, Duration.ZERO),
+                tourValidator);
+        List<CreateTourDto> tours = SyntheticData.createTourDtos(SAMPLES);
+        createTourDtos = tours.toArray(CreateTourDto[]::new);
+        updateTourDtos = tours.stream()
+                .map(dto -> new UpdateTourDto(dto.getName(), dto.getDescription(), dto.getFrom(), dto.getTo(),
+                        dto.getTransportType(), dto.getDistance(), dto.getEstTime()))
+                .toArray(UpdateTourDto[]::new);
+        createTourLogDtos = SyntheticData.createTourLogDtos(SAMPLES).toArray(CreateTourLogDto[]::new);
+        dates = SyntheticData.dates(SAMPLES).toArray(String[]::new);
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SAMPLES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public List<Violation> validateCreateTourDto() {
+        return tourValidator.validate(createTourDtos[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean legacyIsCreateTourDtoValid() {
+        return LegacyValidators.isCreateTourDtoValid(createTourDtos[nextIndex()]);
+    }
+
+    @Benchmark
+    public List<Violation> validateUpdateTourDto() {
+        return tourValidator.validate(updateTourDtos[nextIndex()]);
+    }
+
+    @Benchmark
+    public List<Violation> validateCreateTourLogDto() {
+        return tourValidator.validate(createTourLogDtos[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean legacyIsCreateTourLogDtoValid() {
+        return LegacyValidators.isCreateTourLogDtoValid(createTourLogDtos[nextIndex()]);
+    }
+
+    @Benchmark
+    public LocalDateTime parseDateTimeOrThrow() {
+        return tourService.parseDateTimeOrThrow(dates[nextIndex()]);
+    }
+
+    @Benchmark
+    public LocalDateTime legacyParseDateTimeOrThrow() {
+        return LegacyValidators.parseDateTimeOrThrow(dates[nextIndex()]);
+    }
+}
@@ -0,0 +1,95 @@
+package com.tourplanner.backend.admission;
+
+import com.tourplanner.backend.dtos.AdmissionStatsDto;
+import com.tourplanner.backend.dtos.BulkheadStatsDto;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds a {@link Bulkhead} per {@link EndpointClass}, configured with
+ * {@code tourplanner.bulkhead.<class>.max-concurrent}, {@code .max-queued} and {@code .max-wait}, and the
+ * optional per-client rate limit, enabled with {@code tourplanner.rate-limit.enabled=true}.
+ */
+@Component
+public class AdmissionControl {
+    private static final Logger logger = LogManager.getLogger(AdmissionControl.class);
+
+    private final Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+    private final ClientRateLimiter rateLimiter;
+    private final Duration retryAfter;
+
+    public AdmissionControl(Environment environment,
+                            @Value("${tourplanner.bulkhead.retry-after:1s}") Duration retryAfter,
+                            @Value("${tourplanner.rate-limit.enabled:false}") boolean rateLimitEnabled,
+                            @Value("${tourplanner.rate-limit.capacity:100}") int capacity,
+                            @Value("${tourplanner.rate-limit.tokens-per-second:20}") double tokensPerSecond,
+                            @Value("${tourplanner.rate-limit.max-clients:10000}") int maxClients,
+                            @Value("${server.tomcat.threads.max:200}") int containerThreads,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "tourplanner.bulkhead." + endpointClass.propertyName();
+            bulkheads.put(endpointClass, new Bulkhead(
+                    endpointClass.propertyName(),
+                    environment.getProperty(prefix + ".max-concurrent", Integer.class, endpointClass.defaultMaxConcurrent()),
+                    environment.getProperty(prefix + ".max-queued", Integer.class, endpointClass.defaultMaxQueued()),
+                    environment.getProperty(prefix + ".max-wait", Duration.class, endpointClass.defaultMaxWait())
+            ));
+        }
+        int requiredThreads = requiredThreads();
+        if (!virtualThreads && requiredThreads > containerThreads) {
+            // the requests beyond the container threads wait for a thread without a limit instead of being rejected
+            logger.warn("Bulkheads run and queue up to {} requests, more than the {} container threads",
+                    requiredThreads, containerThreads);
+        }
+        this.retryAfter = retryAfter;
+        this.rateLimiter = rateLimitEnabled ? new ClientRateLimiter(capacity, tokensPerSecond, maxClients) : null;
+    }
+
+    /**
+     * Number of container threads the bulkheads can occupy at the same time, since a queued request waits on its
+     * thread.
+     */
+    public int requiredThreads() {
+        return bulkheads.values().stream()
+                .mapToInt(bulkhead -> bulkhead.getMaxConcurrent() + bulkhead.getMaxQueued())
+                .sum();
+    }
+
+    public Bulkhead bulkhead(EndpointClass endpointClass) {
+        return bulkheads.get(endpointClass);
+    }
+
+    /**
+     * Returns null if rate limiting is disabled.
+     */
+    public ClientRateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Time a client rejected by a full bulkhead is told to wait before retrying.
+     */
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    public AdmissionStatsDto stats() {
+        return new AdmissionStatsDto(
+                Arrays.stream(EndpointClass.values())
+                        .map(bulkheads::get)
+                        .map(bulkhead -> new BulkheadStatsDto(bulkhead.getName(), bulkhead.getMaxConcurrent(),
+                                bulkhead.getMaxQueued(), bulkhead.getActive(), bulkhead.getQueued(),
+                                bulkhead.getAdmitted(), bulkhead.getRejected()))
+                        .toList(),
+                rateLimiter == null ? 0 : rateLimiter.getRejected()
+        );
+    }
+}
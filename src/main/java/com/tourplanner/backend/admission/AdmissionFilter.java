@@ -0,0 +1,108 @@
+package com.tourplanner.backend.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits requests to {@code /tours} through the per-client rate limit and the bulkhead of their
+ * {@link EndpointClass}. Rejected requests fail right away with 429 or 503 and a Retry-After header instead of
+ * waiting for a thread or connection. The client is identified by its remote address, behind a proxy
+ * {@code server.forward-headers-strategy} has to be set for that to be the address of the client.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+    private static final Logger logger = LogManager.getLogger(AdmissionFilter.class);
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionFilter(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        if (endpointClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ClientRateLimiter rateLimiter = admissionControl.rateLimiter();
+        if (rateLimiter != null) {
+            long retryAfterSeconds = rateLimiter.tryAcquire(request.getRemoteAddr());
+            if (retryAfterSeconds > 0) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+                return;
+            }
+        }
+        Bulkhead bulkhead = admissionControl.bulkhead(endpointClass);
+        boolean admitted;
+        try {
+            admitted = bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            logger.debug("Rejected {} {}, bulkhead {} is full", request.getMethod(), request.getRequestURI(),
+                    bulkhead.getName());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, admissionControl.retryAfter().toSeconds())));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // streamed reports keep running after this thread returns, the permit is held until they finish
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // a new async cycle keeps the listener only if it is added again
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tourplanner.backend.admission;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how many requests of one {@link EndpointClass} run at the same time. Requests beyond the limit wait
+ * in a bounded queue for at most the maximum wait; requests that find the queue full or time out are rejected.
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, Duration maxWait) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Returns true if the caller may proceed, in which case it has to call {@link #release()} when done.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            admitted.incrementAndGet();
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                admitted.incrementAndGet();
+                return true;
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getAdmitted() {
+        return admitted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
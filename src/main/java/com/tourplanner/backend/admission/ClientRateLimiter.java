@@ -0,0 +1,75 @@
+package com.tourplanner.backend.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client. Every request takes a token, buckets hold up to the capacity and are refilled at a
+ * fixed rate. Only the most recently seen clients are tracked, a client that is forgotten starts with a full
+ * bucket again.
+ */
+public class ClientRateLimiter {
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier clock;
+    private final Map<String, Bucket> buckets;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ClientRateLimiter(int capacity, double tokensPerSecond, int maxClients) {
+        this(capacity, tokensPerSecond, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(int capacity, double tokensPerSecond, int maxClients, LongSupplier clock) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.clock = clock;
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxClients;
+            }
+        };
+    }
+
+    /**
+     * Takes a token of the given client. Returns 0 if one was available, otherwise the number of seconds
+     * until the next token, which is at least 1.
+     */
+    public long tryAcquire(String client) {
+        long now = clock.getAsLong();
+        lock.lock();
+        try {
+            Bucket bucket = buckets.computeIfAbsent(client, key -> new Bucket(capacity, now));
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+            bucket.refilledAt = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens--;
+                return 0;
+            }
+            rejected.incrementAndGet();
+            double nanosUntilToken = (1 - bucket.tokens) / tokensPerNano;
+            return Math.max(1, (long) Math.ceil(nanosUntilToken / TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private static class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
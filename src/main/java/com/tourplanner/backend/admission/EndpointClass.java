@@ -0,0 +1,64 @@
+package com.tourplanner.backend.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+
+/**
+ * Endpoints of {@code /tours} that share a {@link Bulkhead}, with the limits used when none are configured.
+ * A queued request waits on its container thread, so the defaults, running plus queued, add up to 186 of
+ * Tomcat's 200 threads and leave the rest to requests outside the bulkheads.
+ */
+public enum EndpointClass {
+    /**
+     * PDF reports and exports, which hold a connection and a thread for the whole download.
+     */
+    REPORT(2, 4, Duration.ofSeconds(5)),
+    READ(50, 80, Duration.ofSeconds(1)),
+    WRITE(20, 30, Duration.ofSeconds(2));
+
+    private final int defaultMaxConcurrent;
+    private final int defaultMaxQueued;
+    private final Duration defaultMaxWait;
+
+    EndpointClass(int defaultMaxConcurrent, int defaultMaxQueued, Duration defaultMaxWait) {
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+        this.defaultMaxQueued = defaultMaxQueued;
+        this.defaultMaxWait = defaultMaxWait;
+    }
+
+    public String propertyName() {
+        return name().toLowerCase();
+    }
+
+    int defaultMaxConcurrent() {
+        return defaultMaxConcurrent;
+    }
+
+    int defaultMaxQueued() {
+        return defaultMaxQueued;
+    }
+
+    Duration defaultMaxWait() {
+        return defaultMaxWait;
+    }
+
+    /**
+     * Returns the class of the given request, or null if it is not guarded by a bulkhead.
+     */
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.equals("/tours") && !path.startsWith("/tours/")) {
+            return null;
+        }
+        // change streams are held open by the container without a thread
+        if (path.equals("/tours/stream")) {
+            return null;
+        }
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        if (path.equals("/tours/export") || (read && path.equals("/tours/report"))) {
+            return REPORT;
+        }
+        return read ? READ : WRITE;
+    }
+}
@@ -0,0 +1,49 @@
+package com.tourplanner.backend.config;
+
+import com.tourplanner.backend.entities.TourEntity;
+import com.tourplanner.backend.entities.TourLogEntity;
+import org.hibernate.cache.spi.RegionFactory;
+
+import java.time.Duration;
+
+/**
+ * Regions of the Hibernate second-level cache, with the limits used when none are configured with
+ * {@code tourplanner.l2-cache.<region>.max-size} and {@code .ttl}.
+ */
+public enum CacheRegion {
+    TOURS(TourEntity.CACHE_REGION, "tours", 10_000, Duration.ofMinutes(10)),
+    TOUR_LOGS(TourLogEntity.CACHE_REGION, "tour-logs", 50_000, Duration.ofMinutes(10)),
+    /**
+     * Results of queries marked cacheable, dropped whenever one of the tables they read is written.
+     */
+    QUERY_RESULTS(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, "queries", 10_000,
+            Duration.ofMinutes(5));
+
+    private final String regionName;
+    private final String propertyName;
+    private final long defaultMaxSize;
+    private final Duration defaultTimeToLive;
+
+    CacheRegion(String regionName, String propertyName, long defaultMaxSize, Duration defaultTimeToLive) {
+        this.regionName = regionName;
+        this.propertyName = propertyName;
+        this.defaultMaxSize = defaultMaxSize;
+        this.defaultTimeToLive = defaultTimeToLive;
+    }
+
+    public String regionName() {
+        return regionName;
+    }
+
+    public String propertyName() {
+        return propertyName;
+    }
+
+    long defaultMaxSize() {
+        return defaultMaxSize;
+    }
+
+    Duration defaultTimeToLive() {
+        return defaultTimeToLive;
+    }
+}
@@ -0,0 +1,48 @@
+package com.tourplanner.backend.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past the ids that already exist. Tours and logs used to get their ids from
+ * identity columns, so on existing PostgreSQL databases the new sequences would start at ids that are taken.
+ * Runs once all beans exist and before the web server starts, so no request inserts with a taken id first.
+ */
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+    private static final Logger logger = LogManager.getLogger(IdSequenceInitializer.class);
+
+    private static final Map<String, String> SEQUENCE_TABLES = Map.of(
+            "tours_seq", "tours",
+            "tour_logs_seq", "tour_logs"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        // the pooled optimizer hands out the 50 ids up to each sequence value, so the sequence
+        // may never be behind the highest id
+        SEQUENCE_TABLES.forEach((sequence, table) -> {
+            Long value = jdbcTemplate.queryForObject("select setval('" + sequence + "', greatest("
+                    + "(select coalesce(max(id), 0) from " + table + "), "
+                    + "(select last_value from " + sequence + ")))", Long.class);
+            logger.info("Sequence {} is at {}", sequence, value);
+        });
+    }
+}
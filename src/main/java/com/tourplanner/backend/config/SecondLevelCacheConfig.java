@@ -0,0 +1,56 @@
+package com.tourplanner.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache, kept in local Caffeine caches through JCache. Every
+ * {@link CacheRegion} gets its own bounded cache, entities of other types are not cached. Since the caches
+ * are local, an instance only sees the changes it writes itself. With the invalidation bus enabled the
+ * changes of other instances are evicted by {@code SecondLevelCacheInvalidator}, otherwise their entries
+ * are bounded by the time to live of the region.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public CacheManager hibernateCacheManager(Environment environment) {
+        // a provider per context, so contexts of tests do not share the default cache manager
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        for (CacheRegion region : CacheRegion.values()) {
+            String prefix = "tourplanner.l2-cache." + region.propertyName();
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(
+                    environment.getProperty(prefix + ".max-size", Long.class, region.defaultMaxSize())));
+            configuration.setExpireAfterWrite(OptionalLong.of(
+                    environment.getProperty(prefix + ".ttl", Duration.class, region.defaultTimeToLive()).toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region.regionName(), configuration);
+        }
+        // must outlive every cached query result, so it is neither bounded nor expired
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // every region is created above, a missing one is a mapping error
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.tourplanner.backend.config;
+
+import com.tourplanner.backend.services.TourStatsService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the statistics rows of tours that existed before {@code tour_stats} did. Runs once all beans exist
+ * and before the web server starts, so no request sorts or filters by rating while rows are missing.
+ */
+@Component
+public class TourStatsInitializer implements SmartInitializingSingleton {
+
+    private final TourStatsService tourStatsService;
+
+    public TourStatsInitializer(TourStatsService tourStatsService) {
+        this.tourStatsService = tourStatsService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        tourStatsService.backfill();
+    }
+}
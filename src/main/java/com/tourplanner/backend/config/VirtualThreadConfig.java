@@ -0,0 +1,45 @@
+package com.tourplanner.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Virtual-thread execution mode, enabled with {@code spring.threads.virtual.enabled=true}. Spring Boot then
+ * runs Tomcat requests, async MVC work such as streamed reports and the application task executor on virtual
+ * threads; this configuration adds the limit on concurrent database work that the thread pool used to provide.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    private static final Logger logger = LogManager.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    static BeanPostProcessor connectionLimitingPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                // sized to the connection pool unless configured otherwise, Hikari reports -1 until its pool
+                // starts if the size was left at its default of 10
+                int poolSize = bean instanceof HikariDataSource hikari && hikari.getMaximumPoolSize() > 0
+                        ? hikari.getMaximumPoolSize() : 10;
+                int maxConnections = environment.getProperty("tourplanner.db.max-concurrency", Integer.class, poolSize);
+                Duration acquireTimeout = environment.getProperty("tourplanner.db.acquire-timeout", Duration.class,
+                        Duration.ofSeconds(30));
+                logger.info("Limiting data source {} to {} concurrent connections", beanName, maxConnections);
+                return new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeout);
+            }
+        };
+    }
+}
@@ -1,28 +1,86 @@
 package com.tourplanner.backend.controllers;
 
+import com.tourplanner.backend.admission.AdmissionControl;
 import com.tourplanner.backend.dtos.*;
+import com.tourplanner.backend.services.CacheRegionStatsService;
+import com.tourplanner.backend.services.CatalogVersionService;
+import com.tourplanner.backend.services.ChangeLogService;
+import com.tourplanner.backend.services.ReportJobService;
+import com.tourplanner.backend.services.ReportJobStatus;
+import com.tourplanner.backend.services.TourCache;
+import com.tourplanner.backend.services.TourChangeStream;
+import com.tourplanner.backend.services.TourExportService;
+import com.tourplanner.backend.services.TourLogImportService;
+import com.tourplanner.backend.services.TourReportService;
 import com.tourplanner.backend.services.TourService;
+import com.tourplanner.backend.services.TourStatsService;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("/tours")
 public class TourController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TourService tourService;
+    private final TourStatsService tourStatsService;
+    private final TourReportService tourReportService;
+    private final ReportJobService reportJobService;
+    private final TourLogImportService tourLogImportService;
+    private final TourExportService tourExportService;
+    private final TourCache tourCache;
+    private final CatalogVersionService catalogVersionService;
+    private final ChangeLogService changeLogService;
+    private final TourChangeStream tourChangeStream;
+    private final AdmissionControl admissionControl;
+    private final CacheRegionStatsService cacheRegionStatsService;
 
-    public TourController(TourService tourService) {
+    public TourController(TourService tourService, TourStatsService tourStatsService,
+                          TourReportService tourReportService, ReportJobService reportJobService,
+                          TourLogImportService tourLogImportService, TourExportService tourExportService,
+                          TourCache tourCache, CatalogVersionService catalogVersionService,
+                          ChangeLogService changeLogService, TourChangeStream tourChangeStream,
+                          AdmissionControl admissionControl, CacheRegionStatsService cacheRegionStatsService) {
         this.tourService = tourService;
+        this.tourStatsService = tourStatsService;
+        this.tourReportService = tourReportService;
+        this.reportJobService = reportJobService;
+        this.tourLogImportService = tourLogImportService;
+        this.tourExportService = tourExportService;
+        this.tourCache = tourCache;
+        this.catalogVersionService = catalogVersionService;
+        this.changeLogService = changeLogService;
+        this.tourChangeStream = tourChangeStream;
+        this.admissionControl = admissionControl;
+        this.cacheRegionStatsService = cacheRegionStatsService;
     }
 
     @GetMapping
-    public List<TourDto> getTours() {
-        return tourService.getTours();
+    public ResponseEntity<List<TourDto>> getTours(TourQueryDto query, WebRequest request) {
+        // the version is read before the data, so the tag is never newer than the body
+        if (request.checkNotModified("\"" + catalogVersionService.current() + "\"")) {
+            return null;
+        }
+        TourPageDto page = tourService.getTours(query);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @PostMapping
@@ -30,6 +88,11 @@ public class TourController {
         tourService.createTour(dto);
     }
 
+    @PostMapping("/batch")
+    public void createTours(@RequestBody List<CreateTourDto> dtos) {
+        tourService.createTours(dtos);
+    }
+
     @DeleteMapping("/{id}")
     public void deleteTour(@PathVariable Long id) {
         tourService.deleteTour(id);
@@ -37,43 +100,186 @@ public class TourController {
 
     }
 
+    @DeleteMapping(params = "ids")
+    public void deleteTours(@RequestParam List<Long> ids) {
+        tourService.deleteTours(ids);
+    }
+
+    @GetMapping("/changes")
+    public ChangeFeedDto getChanges(@RequestParam long since, @RequestParam(required = false) Integer limit) {
+        return changeLogService.getChanges(since, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) List<Long> tourId) {
+        return tourChangeStream.subscribe(tourId);
+    }
+
     @PutMapping("/{id}")
     public TourDto updateTour(@PathVariable Long id, @RequestBody UpdateTourDto dto) {
         return tourService.updateTour(id, dto);
 
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<PatchResultDto> patchTour(@PathVariable Long id, @RequestBody PatchTourDto dto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return patched(tourService.patchTour(id, dto, parseVersion(ifMatch)));
+    }
+
     //TourLogs
     @PostMapping("/{tourId}/tour-logs")
     public TourLogDto createTourLog(@PathVariable Long tourId, @RequestBody CreateTourLogDto dto) {
         return tourService.createTourLog(tourId, dto);
     }
+    @PostMapping("/{tourId}/tour-logs/batch")
+    public void createTourLogs(@PathVariable Long tourId, @RequestBody List<CreateTourLogDto> dtos) {
+        tourService.createTourLogs(tourId, dtos);
+    }
     @DeleteMapping("/{tourId}/tour-logs/{tourLogId}")
     public void deleteTourLog(@PathVariable Long tourId, @PathVariable Long tourLogId){
         tourService.deleteTourLog(tourId, tourLogId);
     }
     @GetMapping("/{tourId}/tour-logs")
-    public List<TourLogDto> getTourLogs(@PathVariable Long tourId){
-        return tourService.getTourLogs(tourId);
+    public ResponseEntity<List<TourLogDto>> getTourLogs(@PathVariable Long tourId, TourLogQueryDto query, WebRequest request){
+        if (request.checkNotModified("\"" + tourId + "-" + changeLogService.tourVersion(tourId) + "\"")) {
+            return null;
+        }
+        TourLogPageDto page = tourService.getTourLogs(tourId, query);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
     @PutMapping("/{tourId}/tour-logs/{tourLogId}")
     public TourLogDto updateTourLog(@PathVariable Long tourId, @PathVariable Long tourLogId, @RequestBody UpdateTourLogDto dto){
         return tourService.updateTourLog(tourId, tourLogId, dto);
     }
+    @PatchMapping("/{tourId}/tour-logs/{tourLogId}")
+    public ResponseEntity<PatchResultDto> patchTourLog(@PathVariable Long tourId, @PathVariable Long tourLogId,
+                                                       @RequestBody PatchTourLogDto dto,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return patched(tourService.patchTourLog(tourId, tourLogId, dto, parseVersion(ifMatch)));
+    }
+
+    /**
+     * Reads the version from an {@code If-Match} header like {@code "3"}, or returns null if there is none.
+     */
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String tag = ifMatch.length() > 1 && ifMatch.startsWith("\"") && ifMatch.endsWith("\"")
+                ? ifMatch.substring(1, ifMatch.length() - 1)
+                : ifMatch;
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must contain the version to patch");
+        }
+    }
+
+    private ResponseEntity<PatchResultDto> patched(PatchResultDto result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.getVersion() != null) {
+            response.eTag("\"" + result.getVersion() + "\"");
+        }
+        return response.body(result);
+    }
+
+    @PostMapping(value = "/tour-logs/import", consumes = "application/x-ndjson")
+    public ImportReportDto importTourLogsNdjson(InputStream body) throws IOException {
+        return tourLogImportService.importNdjson(body);
+    }
+
+    @PostMapping(value = "/tour-logs/import", consumes = "text/csv")
+    public ImportReportDto importTourLogsCsv(InputStream body) throws IOException {
+        return tourLogImportService.importCsv(body);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTours(@RequestParam(defaultValue = "ndjson") String format) {
+        StreamingResponseBody body;
+        MediaType contentType;
+        switch (format) {
+            case "ndjson" -> {
+                body = tourExportService::writeNdjson;
+                contentType = MediaType.parseMediaType("application/x-ndjson");
+            }
+            case "csv" -> {
+                body = tourExportService::writeCsv;
+                contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+            }
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format " + format);
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition
+                        .attachment()
+                        .filename("tours." + format)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @GetMapping("/report")
-    public ResponseEntity<byte[]> exportAllToursPdf() {
-        byte[] pdf = tourService.generateAllToursPdf();
+    public ResponseEntity<StreamingResponseBody> exportAllToursPdf() {
+        return ResponseEntity.ok()
+                .headers(pdfHeaders())
+                .body(tourReportService::writeAllToursPdf);
+    }
+
+    @PostMapping("/report/jobs")
+    public ResponseEntity<ReportJobDto> createReportJob() {
+        return ResponseEntity.accepted().body(reportJobService.submit());
+    }
+
+    @GetMapping("/report/jobs/{jobId}")
+    public ResponseEntity<?> getReportJob(@PathVariable String jobId) {
+        ReportJobDto job = reportJobService.getJob(jobId);
+        if (!ReportJobStatus.DONE.name().equals(job.getStatus())) {
+            return ResponseEntity.ok(job);
+        }
+        return ResponseEntity.ok()
+                .headers(pdfHeaders())
+                .body(reportJobService.getArtifact(jobId));
+    }
 
+    private HttpHeaders pdfHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDisposition(ContentDisposition
                 .attachment()
                 .filename("all-tours.pdf")
                 .build());
+        return headers;
+    }
 
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(pdf);
+    //TourStats
+    @GetMapping("/stats/verify")
+    public TourStatsReportDto verifyTourStats() {
+        return tourStatsService.rebuild(false);
+    }
+
+    @PostMapping("/stats/rebuild")
+    public TourStatsReportDto rebuildTourStats() {
+        return tourStatsService.rebuild(true);
+    }
+
+    @GetMapping("/cache/stats")
+    public TourCacheStatsDto getTourCacheStats() {
+        return tourCache.stats();
+    }
+
+    @GetMapping("/cache/regions")
+    public List<CacheRegionStatsDto> getCacheRegionStats() {
+        return cacheRegionStatsService.stats();
+    }
+
+    @GetMapping("/admission/stats")
+    public AdmissionStatsDto getAdmissionStats() {
+        return admissionControl.stats();
     }
 
 }
@@ -0,0 +1,20 @@
+package com.tourplanner.backend.controllers;
+
+import com.tourplanner.backend.validation.InvalidDtoException;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Returns validation failures as problem details, so clients get the list of violations. Other errors keep
+ * the default error body.
+ */
+@RestControllerAdvice
+public class ValidationExceptionHandler {
+
+    @ExceptionHandler(InvalidDtoException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidDto(InvalidDtoException e) {
+        return ResponseEntity.status(e.getStatusCode()).body(e.getBody());
+    }
+}
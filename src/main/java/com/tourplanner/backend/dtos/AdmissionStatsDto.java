@@ -0,0 +1,24 @@
+package com.tourplanner.backend.dtos;
+
+import java.util.List;
+
+public class AdmissionStatsDto {
+    private List<BulkheadStatsDto> bulkheads;
+    private long rateLimited;
+
+    public AdmissionStatsDto(List<BulkheadStatsDto> bulkheads, long rateLimited) {
+        this.bulkheads = bulkheads;
+        this.rateLimited = rateLimited;
+    }
+
+    public List<BulkheadStatsDto> getBulkheads() {
+        return bulkheads;
+    }
+
+    /**
+     * Requests rejected by the per-client rate limit.
+     */
+    public long getRateLimited() {
+        return rateLimited;
+    }
+}
@@ -0,0 +1,53 @@
+package com.tourplanner.backend.dtos;
+
+public class BulkheadStatsDto {
+    private String name;
+    private int maxConcurrent;
+    private int maxQueued;
+    private int active;
+    private int queued;
+    private long admitted;
+    private long rejected;
+
+    public BulkheadStatsDto(String name, int maxConcurrent, int maxQueued, int active, int queued, long admitted,
+                            long rejected) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.active = active;
+        this.queued = queued;
+        this.admitted = admitted;
+        this.rejected = rejected;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * Requests currently waiting for a slot.
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+}
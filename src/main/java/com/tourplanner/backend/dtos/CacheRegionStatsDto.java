@@ -0,0 +1,31 @@
+package com.tourplanner.backend.dtos;
+
+public class CacheRegionStatsDto {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+
+    public CacheRegionStatsDto(String region, long hits, long misses, long puts) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+}
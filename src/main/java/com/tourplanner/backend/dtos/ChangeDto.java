@@ -0,0 +1,34 @@
+package com.tourplanner.backend.dtos;
+
+public class ChangeDto {
+    private long version;
+    private Long tourId;
+    private Long tourLogId;
+    private String changeType;
+
+    public ChangeDto(long version, Long tourId, Long tourLogId, String changeType) {
+        this.version = version;
+        this.tourId = tourId;
+        this.tourLogId = tourLogId;
+        this.changeType = changeType;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Long getTourId() {
+        return tourId;
+    }
+
+    /**
+     * Id of the changed tour log, null if the tour itself changed.
+     */
+    public Long getTourLogId() {
+        return tourLogId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+}
@@ -0,0 +1,30 @@
+package com.tourplanner.backend.dtos;
+
+import java.util.List;
+
+public class ChangeFeedDto {
+    private long version;
+    private List<ChangeDto> changes;
+    private boolean hasMore;
+
+    public ChangeFeedDto(long version, List<ChangeDto> changes, boolean hasMore) {
+        this.version = version;
+        this.changes = changes;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Version to pass as {@code since} with the next request.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<ChangeDto> getChanges() {
+        return changes;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tourplanner.backend.dtos;
+
+public class ImportErrorDto {
+    private long line;
+    private String message;
+
+    public ImportErrorDto(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
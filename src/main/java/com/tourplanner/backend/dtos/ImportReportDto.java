@@ -0,0 +1,30 @@
+package com.tourplanner.backend.dtos;
+
+import java.util.List;
+
+public class ImportReportDto {
+    private long imported;
+    private long failed;
+    private List<ImportErrorDto> errors;
+
+    public ImportReportDto(long imported, long failed, List<ImportErrorDto> errors) {
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Errors of the first failed lines, there may be fewer entries than failed lines.
+     */
+    public List<ImportErrorDto> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,23 @@
+package com.tourplanner.backend.dtos;
+
+public class PatchResultDto {
+    private int affectedRows;
+    private Long version;
+
+    public PatchResultDto(int affectedRows, Long version) {
+        this.affectedRows = affectedRows;
+        this.version = version;
+    }
+
+    public int getAffectedRows() {
+        return affectedRows;
+    }
+
+    /**
+     * New version of the patched row, null if the patch was sent without {@code If-Match} and the version
+     * was therefore not read.
+     */
+    public Long getVersion() {
+        return version;
+    }
+}
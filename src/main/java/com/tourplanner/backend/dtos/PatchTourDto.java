@@ -0,0 +1,83 @@
+package com.tourplanner.backend.dtos;
+
+/**
+ * Fields of a tour to change, fields left null keep their value.
+ */
+public class PatchTourDto {
+    private String name;
+    private String description;
+    private String from;
+    private String to;
+    private String transportType;
+    private Float distance;
+    private Float estTime;
+
+    public PatchTourDto() {
+    }
+
+    public PatchTourDto(String name, String description, String from, String to, String transportType, Float distance, Float estTime) {
+        this.name = name;
+        this.description = description;
+        this.from = from;
+        this.to = to;
+        this.transportType = transportType;
+        this.distance = distance;
+        this.estTime = estTime;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getTransportType() {
+        return transportType;
+    }
+
+    public void setTransportType(String transportType) {
+        this.transportType = transportType;
+    }
+
+    public Float getDistance() {
+        return distance;
+    }
+
+    public void setDistance(Float distance) {
+        this.distance = distance;
+    }
+
+    public Float getEstTime() {
+        return estTime;
+    }
+
+    public void setEstTime(Float estTime) {
+        this.estTime = estTime;
+    }
+}
@@ -0,0 +1,73 @@
+package com.tourplanner.backend.dtos;
+
+/**
+ * Fields of a tour log to change, fields left null keep their value.
+ */
+public class PatchTourLogDto {
+    private String dateTime;
+    private String comment;
+    private String difficulty;
+    private Float totalDistance;
+    private Float totalTime;
+    private Integer rating;
+
+    public PatchTourLogDto() {
+    }
+
+    public PatchTourLogDto(String dateTime, String comment, String difficulty, Float totalDistance, Float totalTime, Integer rating) {
+        this.dateTime = dateTime;
+        this.comment = comment;
+        this.difficulty = difficulty;
+        this.totalDistance = totalDistance;
+        this.totalTime = totalTime;
+        this.rating = rating;
+    }
+
+    public String getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(String dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public Float getTotalDistance() {
+        return totalDistance;
+    }
+
+    public void setTotalDistance(Float totalDistance) {
+        this.totalDistance = totalDistance;
+    }
+
+    public Float getTotalTime() {
+        return totalTime;
+    }
+
+    public void setTotalTime(Float totalTime) {
+        this.totalTime = totalTime;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tourplanner.backend.dtos;
+
+public class ReportJobDto {
+    private String id;
+    private String status;
+    private long catalogVersion;
+    private String createdAt;
+    private String error;
+
+    public ReportJobDto(String id, String status, long catalogVersion, String createdAt, String error) {
+        this.id = id;
+        this.status = status;
+        this.catalogVersion = catalogVersion;
+        this.createdAt = createdAt;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,40 @@
+package com.tourplanner.backend.dtos;
+
+public class TourCacheStatsDto {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int cachedTours;
+    private int cachedPages;
+
+    public TourCacheStatsDto(long hits, long misses, long evictions, int cachedTours, int cachedPages) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.cachedTours = cachedTours;
+        this.cachedPages = cachedPages;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Entries removed because the cache was full or they expired, invalidated entries are not counted.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getCachedTours() {
+        return cachedTours;
+    }
+
+    public int getCachedPages() {
+        return cachedPages;
+    }
+}
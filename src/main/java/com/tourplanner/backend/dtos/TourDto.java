@@ -11,6 +11,7 @@ public class TourDto {
     private float estTime;
     private float avgRating;
     private String popularity;
+    private long version;
 
     public TourDto() {
     }
@@ -18,7 +19,7 @@ public class TourDto {
 
 
 
-    public TourDto(Long id, String name, String description, String from, String to, String transportType, float distance, float estTime, float avgRating, String popularity) {
+    public TourDto(Long id, String name, String description, String from, String to, String transportType, float distance, float estTime, float avgRating, String popularity, long version) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -29,6 +30,7 @@ public class TourDto {
         this.estTime = estTime;
         this.avgRating = avgRating;
         this.popularity = popularity;
+        this.version = version;
     }
 
     public Long getId() {
@@ -109,4 +111,15 @@ public class TourDto {
     public void setPopularity(String popularity) {
         this.popularity = popularity;
     }
+
+    /**
+     * Version to send in {@code If-Match} to patch the tour only if it has not changed since.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -8,8 +8,9 @@ public class TourLogDto {
     private float totalDistance;
     private float totalTime;
     private int rating;
+    private long version;
 
-    public TourLogDto(Long id, String dateTime, String comment, String difficulty, float totalDistance, float totalTime, int rating) {
+    public TourLogDto(Long id, String dateTime, String comment, String difficulty, float totalDistance, float totalTime, int rating, long version) {
         this.id = id;
         this.dateTime = dateTime;
         this.comment = comment;
@@ -17,6 +18,7 @@ public class TourLogDto {
         this.totalDistance = totalDistance;
         this.totalTime = totalTime;
         this.rating = rating;
+        this.version = version;
     }
 
     public Long getId() {
@@ -46,4 +48,11 @@ public class TourLogDto {
     public int getRating() {
         return rating;
     }
+
+    /**
+     * Version to send in {@code If-Match} to patch the log only if it has not changed since.
+     */
+    public long getVersion() {
+        return version;
+    }
 }
@@ -0,0 +1,73 @@
+package com.tourplanner.backend.dtos;
+
+/**
+ * One record of a tour log import. Fields are boxed so missing values can be told apart from zero.
+ */
+public class TourLogImportDto {
+    private Long tourId;
+    private String dateTime;
+    private String comment;
+    private String difficulty;
+    private Float totalDistance;
+    private Float totalTime;
+    private Integer rating;
+
+    public TourLogImportDto() {
+    }
+
+    public Long getTourId() {
+        return tourId;
+    }
+
+    public void setTourId(Long tourId) {
+        this.tourId = tourId;
+    }
+
+    public String getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(String dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public Float getTotalDistance() {
+        return totalDistance;
+    }
+
+    public void setTotalDistance(Float totalDistance) {
+        this.totalDistance = totalDistance;
+    }
+
+    public Float getTotalTime() {
+        return totalTime;
+    }
+
+    public void setTotalTime(Float totalTime) {
+        this.totalTime = totalTime;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+}
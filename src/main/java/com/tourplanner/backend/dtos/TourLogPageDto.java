@@ -0,0 +1,24 @@
+package com.tourplanner.backend.dtos;
+
+import java.util.List;
+
+public class TourLogPageDto {
+    private List<TourLogDto> items;
+    private String nextCursor;
+
+    public TourLogPageDto(List<TourLogDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TourLogDto> getItems() {
+        return items;
+    }
+
+    /**
+     * Continuation token of the following page, null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
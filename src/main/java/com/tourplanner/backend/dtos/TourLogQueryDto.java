@@ -0,0 +1,55 @@
+package com.tourplanner.backend.dtos;
+
+/**
+ * Query parameters of the tour log listing. All of them are optional, dates use yyyy-MM-dd.
+ */
+public class TourLogQueryDto {
+    private String cursor;
+    private Integer limit;
+    private String from;
+    private String to;
+    private String difficulty;
+
+    public TourLogQueryDto() {
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tourplanner.backend.dtos;
+
+import java.util.List;
+
+public class TourPageDto {
+    private List<TourDto> items;
+    private String nextCursor;
+
+    public TourPageDto(List<TourDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TourDto> getItems() {
+        return items;
+    }
+
+    /**
+     * Continuation token of the following page, null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.tourplanner.backend.dtos;
+
+/**
+ * Query parameters of the tour listing. All of them are optional.
+ */
+public class TourQueryDto {
+    private String cursor;
+    private Integer limit;
+    private String sort;
+    private String direction;
+    private String transportType;
+    private Float minDistance;
+    private Float maxDistance;
+    private Float minRating;
+
+    public TourQueryDto() {
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public String getTransportType() {
+        return transportType;
+    }
+
+    public void setTransportType(String transportType) {
+        this.transportType = transportType;
+    }
+
+    public Float getMinDistance() {
+        return minDistance;
+    }
+
+    public void setMinDistance(Float minDistance) {
+        this.minDistance = minDistance;
+    }
+
+    public Float getMaxDistance() {
+        return maxDistance;
+    }
+
+    public void setMaxDistance(Float maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    public Float getMinRating() {
+        return minRating;
+    }
+
+    public void setMinRating(Float minRating) {
+        this.minRating = minRating;
+    }
+}
@@ -0,0 +1,27 @@
+package com.tourplanner.backend.dtos;
+
+import java.util.List;
+
+public class TourStatsReportDto {
+    private int checkedTours;
+    private List<Long> driftedTourIds;
+    private boolean repaired;
+
+    public TourStatsReportDto(int checkedTours, List<Long> driftedTourIds, boolean repaired) {
+        this.checkedTours = checkedTours;
+        this.driftedTourIds = driftedTourIds;
+        this.repaired = repaired;
+    }
+
+    public int getCheckedTours() {
+        return checkedTours;
+    }
+
+    public List<Long> getDriftedTourIds() {
+        return driftedTourIds;
+    }
+
+    public boolean isRepaired() {
+        return repaired;
+    }
+}
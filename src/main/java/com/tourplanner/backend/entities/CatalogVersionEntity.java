@@ -0,0 +1,32 @@
+package com.tourplanner.backend.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Single row counter that is incremented by every change to tours or tour logs.
+ */
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersionEntity {
+
+    @Id
+    private Integer id;
+
+    private long version;
+
+    public CatalogVersionEntity() {
+    }
+
+    public CatalogVersionEntity(Integer id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,63 @@
+package com.tourplanner.backend.entities;
+
+import com.tourplanner.backend.events.ChangeType;
+import jakarta.persistence.*;
+
+/**
+ * One committed change to a tour or tour log, recorded with the catalogue version of its transaction.
+ * {@code tourLogId} is null if the tour itself changed.
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_version", columnList = "version, id"),
+        @Index(name = "idx_change_log_tour_version", columnList = "tour_id, version")
+})
+public class ChangeLogEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_log_seq")
+    @SequenceGenerator(name = "change_log_seq", sequenceName = "change_log_seq", allocationSize = 50)
+    private Long id;
+
+    private long version;
+
+    @Column(name = "tour_id", nullable = false)
+    private Long tourId;
+
+    @Column(name = "tour_log_id")
+    private Long tourLogId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private ChangeType changeType;
+
+    public ChangeLogEntity() {
+    }
+
+    public ChangeLogEntity(long version, Long tourId, Long tourLogId, ChangeType changeType) {
+        this.version = version;
+        this.tourId = tourId;
+        this.tourLogId = tourLogId;
+        this.changeType = changeType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Long getTourId() {
+        return tourId;
+    }
+
+    public Long getTourLogId() {
+        return tourLogId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+}
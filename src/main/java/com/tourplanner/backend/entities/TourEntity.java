@@ -1,13 +1,28 @@
 package com.tourplanner.backend.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "tours")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = TourEntity.CACHE_REGION)
+@Table(name = "tours", indexes = {
+        @Index(name = "idx_tours_name", columnList = "name, id"),
+        @Index(name = "idx_tours_distance", columnList = "distance, id"),
+        @Index(name = "idx_tours_estimated_time", columnList = "estimated_time, id"),
+        @Index(name = "idx_tours_transport_type", columnList = "transport_type, id")
+})
 public class TourEntity {
 
+    // second-level cache region, configured in CacheRegion
+    public static final String CACHE_REGION = "tours";
+
+    // sequence ids let Hibernate batch inserts, 50 ids are reserved per sequence call
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tours_seq")
+    @SequenceGenerator(name = "tours_seq", sequenceName = "tours_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -28,6 +43,11 @@ public class TourEntity {
     @Column(name = "estimated_time")
     private float estimatedTime;
 
+    // incremented by every update, the default fills the column of rows that existed before it
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     public TourEntity() {
     }
 
@@ -78,6 +98,10 @@ public class TourEntity {
         return estimatedTime;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
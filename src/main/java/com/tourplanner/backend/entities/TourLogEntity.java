@@ -1,14 +1,26 @@
 package com.tourplanner.backend.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tour_logs")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = TourLogEntity.CACHE_REGION)
+@Table(name = "tour_logs", indexes = {
+        @Index(name = "idx_tour_logs_tour_date", columnList = "tour_id, date_time, id")
+})
 public class TourLogEntity {
 
+    // second-level cache region, configured in CacheRegion
+    public static final String CACHE_REGION = "tour-logs";
+
+    // sequence ids let Hibernate batch inserts, 50 ids are reserved per sequence call
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tour_logs_seq")
+    @SequenceGenerator(name = "tour_logs_seq", sequenceName = "tour_logs_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime dateTime;
@@ -24,10 +36,15 @@ public class TourLogEntity {
     private int rating;
 
     // Optional: Link to the parent tour
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tour_id", nullable = false)
     private TourEntity tour;
 
+    // incremented by every update, the default fills the column of rows that existed before it
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     // --- Constructors ---
 
     public TourLogEntity() {}
@@ -71,5 +88,7 @@ public class TourLogEntity {
     public TourEntity getTour() { return tour; }
     public void setTour(TourEntity tour) { this.tour = tour; }
 
+    public long getVersion() { return version; }
+
 
 }
\ No newline at end of file
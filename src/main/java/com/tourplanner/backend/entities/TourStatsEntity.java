@@ -0,0 +1,130 @@
+package com.tourplanner.backend.entities;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed statistics of the logs of one tour. Kept up to date by {@code TourStatsService}
+ * whenever a tour log is created, updated or deleted.
+ */
+@Entity
+@Table(name = "tour_stats", indexes = {
+        @Index(name = "idx_tour_stats_avg_rating", columnList = "avg_rating, tour_id")
+})
+public class TourStatsEntity implements Persistable<Long> {
+
+    @Id
+    @Column(name = "tour_id")
+    private Long tourId;
+
+    @Column(name = "log_count")
+    private long logCount;
+
+    @Column(name = "rating_sum")
+    private long ratingSum;
+
+    @Column(name = "total_distance")
+    private double totalDistance;
+
+    @Column(name = "total_time")
+    private double totalTime;
+
+    @Column(name = "last_log_date")
+    private LocalDateTime lastLogDate;
+
+    // derived from rating_sum and log_count, stored so tours can be sorted by it
+    @Column(name = "avg_rating")
+    private double avgRating;
+
+    // the id is assigned, this tells Spring Data to persist new rows without selecting them first
+    @Transient
+    private boolean isNew = true;
+
+    public TourStatsEntity() {
+    }
+
+    public TourStatsEntity(Long tourId) {
+        this.tourId = tourId;
+    }
+
+    public TourStatsEntity(Long tourId, long logCount, long ratingSum, double totalDistance, double totalTime,
+                           LocalDateTime lastLogDate) {
+        this.tourId = tourId;
+        this.logCount = logCount;
+        this.ratingSum = ratingSum;
+        this.totalDistance = totalDistance;
+        this.totalTime = totalTime;
+        this.lastLogDate = lastLogDate;
+        this.avgRating = logCount == 0 ? 0 : (double) ratingSum / logCount;
+    }
+
+    @Override
+    public Long getId() {
+        return tourId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    public Long getTourId() {
+        return tourId;
+    }
+
+    public long getLogCount() {
+        return logCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    public LocalDateTime getLastLogDate() {
+        return lastLogDate;
+    }
+
+    public double getAvgRating() {
+        return avgRating;
+    }
+
+    public void setLogCount(long logCount) {
+        this.logCount = logCount;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public void setTotalDistance(double totalDistance) {
+        this.totalDistance = totalDistance;
+    }
+
+    public void setTotalTime(double totalTime) {
+        this.totalTime = totalTime;
+    }
+
+    public void setLastLogDate(LocalDateTime lastLogDate) {
+        this.lastLogDate = lastLogDate;
+    }
+
+    public void setAvgRating(double avgRating) {
+        this.avgRating = avgRating;
+    }
+}
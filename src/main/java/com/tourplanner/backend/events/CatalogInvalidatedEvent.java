@@ -0,0 +1,8 @@
+package com.tourplanner.backend.events;
+
+/**
+ * Published when changes may have been missed, for example by another instance while the connection to it
+ * was lost. Everything derived from tours or tour logs has to be considered stale.
+ */
+public record CatalogInvalidatedEvent(String reason) {
+}
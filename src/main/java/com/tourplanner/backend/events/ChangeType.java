@@ -0,0 +1,7 @@
+package com.tourplanner.backend.events;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
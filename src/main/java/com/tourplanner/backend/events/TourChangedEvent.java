@@ -0,0 +1,29 @@
+package com.tourplanner.backend.events;
+
+/**
+ * Published by {@code TourService} whenever a tour or one of its logs is created, updated or deleted.
+ * {@code tourLogId} is null if the tour itself changed. {@code summaryChanged} tells whether the
+ * change affects the tour as listed by {@code GET /tours}, which log changes only do if they alter the
+ * number of logs or a rating. {@code catalogVersion} is the catalogue version the change was committed
+ * with and {@code remote} is set for changes committed by another instance and received through the
+ * {@link InvalidationBus}.
+ */
+public record TourChangedEvent(Long tourId, Long tourLogId, ChangeType changeType, boolean summaryChanged,
+                               long catalogVersion, boolean remote) {
+
+    public static TourChangedEvent tour(Long tourId, ChangeType changeType, long catalogVersion) {
+        return new TourChangedEvent(tourId, null, changeType, true, catalogVersion, false);
+    }
+
+    public static TourChangedEvent tourLog(Long tourId, Long tourLogId, ChangeType changeType, long catalogVersion) {
+        return new TourChangedEvent(tourId, tourLogId, changeType, changeType != ChangeType.UPDATED, catalogVersion, false);
+    }
+
+    public static TourChangedEvent tourLogUpdated(Long tourId, Long tourLogId, boolean ratingChanged, long catalogVersion) {
+        return new TourChangedEvent(tourId, tourLogId, ChangeType.UPDATED, ratingChanged, catalogVersion, false);
+    }
+
+    public boolean isTourLogChange() {
+        return tourLogId != null;
+    }
+}
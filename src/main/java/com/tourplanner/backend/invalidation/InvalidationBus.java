@@ -0,0 +1,192 @@
+package com.tourplanner.backend.invalidation;
+
+import com.tourplanner.backend.events.CatalogInvalidatedEvent;
+import com.tourplanner.backend.events.ChangeType;
+import com.tourplanner.backend.events.TourChangedEvent;
+import com.tourplanner.backend.services.CatalogVersionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares committed changes between instances of the backend that use the same database. Every
+ * {@link TourChangedEvent} committed on this instance is broadcast over the {@link InvalidationChannel},
+ * and changes of other instances are published here as remote {@link TourChangedEvent}s, so caches only
+ * have to listen to local events.
+ * <p>
+ * Messages can get lost, for example while the connection of the listener is down. Every check interval
+ * the bus therefore verifies that it has seen a message for the catalogue version it read at the previous
+ * check, and publishes a {@link CatalogInvalidatedEvent} if not. The same happens after reconnecting.
+ * <p>
+ * Enabled with {@code tourplanner.invalidation.bus=postgres}. With the default {@code local} every
+ * instance only sees its own changes.
+ */
+@Component
+@ConditionalOnProperty(name = "tourplanner.invalidation.bus", havingValue = "postgres")
+public class InvalidationBus {
+    private static final Logger logger = LogManager.getLogger(InvalidationBus.class);
+
+    private static final Duration RECEIVE_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final InvalidationChannel channel;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionService catalogVersionService;
+    private final Duration checkInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+    // highest catalogue version of all messages seen, including the ones of this instance
+    private final AtomicLong highestSeenVersion = new AtomicLong();
+    // catalogue version read at the previous check, which has to be seen by the next one
+    private long versionToConfirm;
+    private final ScheduledExecutorService executor;
+    private Thread listener;
+    private volatile boolean running;
+
+    public InvalidationBus(InvalidationChannel channel, ApplicationEventPublisher eventPublisher,
+                           CatalogVersionService catalogVersionService,
+                           @Value("${tourplanner.invalidation.check-interval:30s}") Duration checkInterval) {
+        this.channel = channel;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersionService = catalogVersionService;
+        this.checkInterval = checkInterval;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        long version = catalogVersionService.current();
+        highestSeenVersion.set(version);
+        versionToConfirm = version;
+        running = true;
+        listener = new Thread(this::listen, "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+        executor.scheduleWithFixedDelay(this::check, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        logger.info("Invalidation bus started on node {}", nodeId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        highestSeenVersion.accumulateAndGet(event.catalogVersion(), Math::max);
+        String message = encode(event);
+        // sent from another thread, the committing one may still be bound to its finished transaction
+        executor.execute(() -> {
+            try {
+                channel.send(message);
+            } catch (RuntimeException e) {
+                logger.warn("Could not broadcast change of tour {}", event.tourId(), e);
+            }
+        });
+    }
+
+    private void listen() {
+        boolean connected = false;
+        boolean wasConnected = false;
+        try {
+            while (running) {
+                try {
+                    if (!connected) {
+                        channel.connect();
+                        connected = true;
+                        if (wasConnected) {
+                            resync("reconnected to the invalidation channel");
+                        }
+                        wasConnected = true;
+                    }
+                    for (String message : channel.receive(RECEIVE_TIMEOUT)) {
+                        handle(message);
+                    }
+                } catch (RuntimeException e) {
+                    if (!running) {
+                        return;
+                    }
+                    logger.warn("Invalidation channel failed, reconnecting in {}", RECONNECT_DELAY, e);
+                    connected = false;
+                    channel.close();
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    void handle(String message) {
+        String[] parts = message.split(";", -1);
+        TourChangedEvent event;
+        try {
+            event = new TourChangedEvent(
+                    Long.valueOf(parts[2]),
+                    parts[3].isEmpty() ? null : Long.valueOf(parts[3]),
+                    ChangeType.valueOf(parts[4]),
+                    Boolean.parseBoolean(parts[5]),
+                    Long.parseLong(parts[1]),
+                    true
+            );
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring malformed invalidation message {}", message);
+            resync("received a malformed invalidation message");
+            return;
+        }
+        highestSeenVersion.accumulateAndGet(event.catalogVersion(), Math::max);
+        if (!nodeId.equals(parts[0])) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    String encode(TourChangedEvent event) {
+        return nodeId + ";" + event.catalogVersion() + ";" + event.tourId() + ";"
+                + (event.tourLogId() == null ? "" : event.tourLogId()) + ";" + event.changeType() + ";"
+                + event.summaryChanged();
+    }
+
+    void check() {
+        try {
+            long current = catalogVersionService.current();
+            if (highestSeenVersion.get() < versionToConfirm) {
+                resync("no invalidation message for catalog version " + versionToConfirm);
+                highestSeenVersion.accumulateAndGet(versionToConfirm, Math::max);
+            }
+            versionToConfirm = current;
+        } catch (RuntimeException e) {
+            logger.warn("Could not check the catalog version", e);
+        }
+    }
+
+    private void resync(String reason) {
+        logger.warn("Invalidating all cached tours, {}", reason);
+        eventPublisher.publishEvent(new CatalogInvalidatedEvent(reason));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        executor.shutdownNow();
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.tourplanner.backend.invalidation;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Broadcasts short text messages to all instances connected to the channel, including the sender.
+ * {@link #connect()} and {@link #receive(Duration)} are only called by a single listener thread.
+ * Failures are reported as runtime exceptions, after which the listener closes and reconnects the channel.
+ */
+public interface InvalidationChannel {
+
+    void connect();
+
+    /**
+     * Waits up to the given time for messages and returns all messages received since the last call.
+     */
+    List<String> receive(Duration timeout);
+
+    void send(String message);
+
+    void close();
+}
@@ -0,0 +1,89 @@
+package com.tourplanner.backend.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link InvalidationChannel} on top of PostgreSQL LISTEN/NOTIFY. The listener holds a connection of its
+ * own, opened from the driver rather than the pool, so it takes neither a pooled connection nor, in
+ * virtual-thread mode, one of the permits of the {@code ConnectionLimitingDataSource} for as long as the
+ * application runs. Messages are sent with short-lived connections of the pool.
+ */
+@Component
+@ConditionalOnProperty(name = "tourplanner.invalidation.bus", havingValue = "postgres")
+public class PostgresInvalidationChannel implements InvalidationChannel {
+    static final String CHANNEL = "tour_changes";
+
+    private final DataSource listenerDataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private Connection connection;
+
+    public PostgresInvalidationChannel(DataSourceProperties dataSourceProperties, JdbcTemplate jdbcTemplate) {
+        this.listenerDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void connect() {
+        try {
+            connection = listenerDataSource.getConnection();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Could not listen on channel " + CHANNEL, e);
+        }
+    }
+
+    @Override
+    public List<String> receive(Duration timeout) {
+        try {
+            PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                    .getNotifications((int) timeout.toMillis());
+            if (notifications == null) {
+                return List.of();
+            }
+            return Arrays.stream(notifications).map(PGNotification::getParameter).toList();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Lost connection to channel " + CHANNEL, e);
+        }
+    }
+
+    @Override
+    public void send(String message) {
+        // must not run inside a transaction, the notification would only be delivered when it commits
+        jdbcTemplate.query("select pg_notify(?, ?)", (ResultSetExtractor<Void>) resultSet -> null, CHANNEL, message);
+    }
+
+    @Override
+    public void close() {
+        if (connection == null) {
+            return;
+        }
+        // closing the connection ends the session and with it the LISTEN
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // the session is gone either way
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.tourplanner.backend.invalidation;
+
+import com.tourplanner.backend.entities.TourEntity;
+import com.tourplanner.backend.entities.TourLogEntity;
+import com.tourplanner.backend.events.CatalogInvalidatedEvent;
+import com.tourplanner.backend.events.ChangeType;
+import com.tourplanner.backend.events.TourChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Evicts the changes of other instances from the Hibernate second-level and query caches, which are local to
+ * every instance and only see the writes of their own. A remote change evicts the changed tour or log, a
+ * deleted tour all cached logs since the ones it took with it are not known. Every remote change also drops
+ * the cached query results and marks all tables as updated in the timestamps region, so a result that is
+ * still being read from before the change is not served once stored. A {@link CatalogInvalidatedEvent}
+ * evicts everything.
+ */
+@Component
+public class SecondLevelCacheInvalidator {
+    private static final Logger logger = LogManager.getLogger(SecondLevelCacheInvalidator.class);
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final String[] querySpaces;
+
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Set<String> spaces = new LinkedHashSet<>();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(descriptor ->
+                descriptor.visitQuerySpaces(spaces::add));
+        this.querySpaces = spaces.toArray(String[]::new);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        // local writes keep the caches of this instance up to date themselves
+        if (!event.remote()) {
+            return;
+        }
+        CacheImplementor cache = sessionFactory.getCache();
+        if (event.isTourLogChange()) {
+            cache.evictEntityData(TourLogEntity.class, event.tourLogId());
+        } else {
+            cache.evictEntityData(TourEntity.class, event.tourId());
+            if (event.changeType() == ChangeType.DELETED) {
+                cache.evictEntityData(TourLogEntity.class);
+            }
+        }
+        evictQueries(cache);
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        logger.info("Evicting the second-level cache, {}", event.reason());
+        CacheImplementor cache = sessionFactory.getCache();
+        cache.evictEntityData();
+        evictQueries(cache);
+    }
+
+    private void evictQueries(CacheImplementor cache) {
+        // before the results are dropped, so one stored in between is already out of date
+        try (Session session = sessionFactory.openSession()) {
+            cache.getTimestampsCache().invalidate(querySpaces, (SharedSessionContractImplementor) session);
+        }
+        cache.evictQueryRegions();
+    }
+}
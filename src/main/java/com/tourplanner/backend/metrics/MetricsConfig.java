@@ -0,0 +1,109 @@
+package com.tourplanner.backend.metrics;
+
+import com.tourplanner.backend.admission.AdmissionControl;
+import com.tourplanner.backend.admission.Bulkhead;
+import com.tourplanner.backend.admission.EndpointClass;
+import com.tourplanner.backend.config.ConnectionLimitingDataSource;
+import com.tourplanner.backend.services.TourCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Metrics beyond the ones of Spring Boot, which already covers HTTP requests, the connection pool and, with
+ * {@code hibernate.generate_statistics}, Hibernate. Services annotated with {@code @Timed} get a timer per
+ * public method.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Bean
+    static BeanPostProcessor statementTimingPostProcessor(ObjectProvider<StatementCounter> statementCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof StatementTimingDataSource) {
+                    return bean;
+                }
+                return new StatementTimingDataSource(dataSource, statementCounter.getObject());
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder tourCacheMetrics(TourCache tourCache) {
+        return registry -> {
+            FunctionCounter.builder("tourplanner.cache.tours.hits", tourCache, cache -> cache.stats().getHits())
+                    .register(registry);
+            FunctionCounter.builder("tourplanner.cache.tours.misses", tourCache, cache -> cache.stats().getMisses())
+                    .register(registry);
+            FunctionCounter.builder("tourplanner.cache.tours.evictions", tourCache,
+                    cache -> cache.stats().getEvictions()).register(registry);
+            Gauge.builder("tourplanner.cache.tours.size", tourCache, cache -> cache.stats().getCachedTours())
+                    .register(registry);
+            Gauge.builder("tourplanner.cache.pages.size", tourCache, cache -> cache.stats().getCachedPages())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder bulkheadMetrics(AdmissionControl admissionControl) {
+        return registry -> {
+            for (EndpointClass endpointClass : EndpointClass.values()) {
+                Bulkhead bulkhead = admissionControl.bulkhead(endpointClass);
+                Gauge.builder("tourplanner.bulkhead.active", bulkhead, Bulkhead::getActive)
+                        .tag("bulkhead", bulkhead.getName()).register(registry);
+                Gauge.builder("tourplanner.bulkhead.queued", bulkhead, Bulkhead::getQueued)
+                        .tag("bulkhead", bulkhead.getName()).register(registry);
+                FunctionCounter.builder("tourplanner.bulkhead.rejected", bulkhead, Bulkhead::getRejected)
+                        .tag("bulkhead", bulkhead.getName()).register(registry);
+            }
+            FunctionCounter.builder("tourplanner.rate-limit.rejected", admissionControl,
+                    control -> control.rateLimiter() == null ? 0 : control.rateLimiter().getRejected())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            // only wrapped in virtual-thread mode, inside or around the statement timing
+            ConnectionLimitingDataSource limited = unwrap(dataSource, ConnectionLimitingDataSource.class);
+            if (limited != null) {
+                Gauge.builder("tourplanner.db.permits.available", limited,
+                        ConnectionLimitingDataSource::availablePermits).register(registry);
+                Gauge.builder("tourplanner.db.permits.queued", limited,
+                        ConnectionLimitingDataSource::queueLength).register(registry);
+            }
+        };
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.tourplanner.backend.metrics;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the statements run so far to responses with a body, which are committed before
+ * {@link StatementCountFilter} gets to set the header.
+ */
+@RestControllerAdvice
+@Profile("!prod")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+    private final StatementCounter statementCounter;
+
+    public QueryCountHeaderAdvice(StatementCounter statementCounter) {
+        this.statementCounter = statementCounter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        response.getHeaders().set(StatementCountFilter.QUERY_COUNT_HEADER,
+                String.valueOf(statementCounter.current()));
+        return body;
+    }
+}
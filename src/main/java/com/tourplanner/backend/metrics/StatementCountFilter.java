@@ -0,0 +1,85 @@
+package com.tourplanner.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the number of SQL statements of every request in {@code tourplanner.sql.statements} and the time
+ * they took to execute in {@code tourplanner.sql.time}, both tagged with the matched URI pattern and method
+ * like {@code http.server.requests}, and logs requests that run more
+ * statements than {@code tourplanner.sql.statement-budget}. Outside the {@code prod} profile the count is
+ * also returned in the {@value #QUERY_COUNT_HEADER} header.
+ */
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+    private static final Logger logger = LogManager.getLogger(StatementCountFilter.class);
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+    private final boolean exposeCount;
+
+    public StatementCountFilter(StatementCounter statementCounter, MeterRegistry meterRegistry,
+                                Environment environment,
+                                @Value("${tourplanner.sql.statement-budget:25}") int statementBudget) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+        this.exposeCount = !environment.acceptsProfiles(Profiles.of("prod"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementCounter.Scope scope = statementCounter.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+            int statements = scope.count();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("tourplanner.sql.statements")
+                    .description("SQL statements per request")
+                    .tag("uri", uri)
+                    .tag("method", request.getMethod())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(statements);
+            Timer.builder("tourplanner.sql.time")
+                    .description("SQL execution time per request")
+                    .tag("uri", uri)
+                    .tag("method", request.getMethod())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(scope.nanos(), TimeUnit.NANOSECONDS);
+            if (statements > statementBudget) {
+                logger.warn("{} {} ({}) ran {} SQL statements in {} ms, the budget is {}",
+                        request.getMethod(), request.getRequestURI(), uri, statements,
+                        TimeUnit.NANOSECONDS.toMillis(scope.nanos()), statementBudget);
+            }
+            // responses with a body got the header from QueryCountHeaderAdvice before they were written
+            if (exposeCount && !response.isCommitted()) {
+                response.setHeader(QUERY_COUNT_HEADER, String.valueOf(statements));
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.tourplanner.backend.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a {@link Scope} is open, and sums
+ * the time they take to execute as measured by the {@link StatementTimingDataSource}. Scopes can be nested, a
+ * statement counts for every open scope. Statements run on other threads, such as those of a streamed report,
+ * are not counted.
+ */
+@Component
+public class StatementCounter implements StatementInspector {
+    private final ThreadLocal<Scope> innermost = new ThreadLocal<>();
+
+    public Scope open() {
+        Scope scope = new Scope(innermost.get());
+        innermost.set(scope);
+        return scope;
+    }
+
+    /**
+     * Returns the statements of the innermost open scope, or 0 if none is open.
+     */
+    public int current() {
+        Scope scope = innermost.get();
+        return scope == null ? 0 : scope.count;
+    }
+
+    public boolean isCounting() {
+        return innermost.get() != null;
+    }
+
+    /**
+     * Adds the execution time of a statement to every open scope.
+     */
+    public void addTime(long nanos) {
+        for (Scope scope = innermost.get(); scope != null; scope = scope.parent) {
+            scope.nanos += nanos;
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Scope scope = innermost.get(); scope != null; scope = scope.parent) {
+            scope.count++;
+        }
+        return sql;
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private int count;
+        private long nanos;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        /**
+         * Returns the time the statements of the scope took to execute, in nanoseconds.
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        @Override
+        public void close() {
+            if (innermost.get() != this) {
+                return;
+            }
+            if (parent == null) {
+                innermost.remove();
+            } else {
+                innermost.set(parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tourplanner.backend.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times the execution of every statement run over its connections and adds it to the open scopes of the
+ * {@link StatementCounter}. Only the execute calls are timed; the rows of a result set that the driver
+ * fetches while it is read, as in a streamed report, are not.
+ */
+public class StatementTimingDataSource extends DelegatingDataSource {
+    private final StatementCounter statementCounter;
+
+    public StatementTimingDataSource(DataSource target, StatementCounter statementCounter) {
+        super(target);
+        this.statementCounter = statementCounter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return (Connection) timed(obtainTargetDataSource().getConnection(), Connection.class);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return (Connection) timed(obtainTargetDataSource().getConnection(username, password), Connection.class);
+    }
+
+    /**
+     * Wraps a connection, whose statements are wrapped in turn, or a statement, whose execute calls are timed.
+     */
+    private Object timed(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    boolean timed = isExecute(target, method) && statementCounter.isCounting();
+                    long start = timed ? System.nanoTime() : 0;
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (timed) {
+                            statementCounter.addTime(System.nanoTime() - start);
+                        }
+                    }
+                    if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        return timed(result, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private boolean isExecute(Object target, Method method) {
+        return target instanceof Statement && method.getName().startsWith("execute");
+    }
+}
@@ -0,0 +1,37 @@
+package com.tourplanner.backend.repositories;
+
+import com.tourplanner.backend.entities.CatalogVersionEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersionEntity, Integer> {
+
+    /**
+     * Flushes the pending changes of the transaction first, so the row is locked only for what follows.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update CatalogVersionEntity v set v.version = v.version + 1 where v.id = :id")
+    int increment(@Param("id") Integer id);
+
+    /**
+     * Creates the row with version 0 unless it exists. A concurrent insert makes this one wait for it and then
+     * do nothing, instead of failing on the primary key.
+     */
+    @Modifying
+    @Query(value = "insert into catalog_version (id, version) values (:id, 0) on conflict do nothing",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "catalog_version"))
+    int insertIfMissing(@Param("id") Integer id);
+
+    @Query("select v.version from CatalogVersionEntity v where v.id = :id")
+    Optional<Long> findVersion(@Param("id") Integer id);
+}
@@ -0,0 +1,41 @@
+package com.tourplanner.backend.repositories;
+
+import com.tourplanner.backend.entities.ChangeLogEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntity, Long> {
+
+    /**
+     * Catalogue version of the last change to the tour or one of its logs. Answered from the query cache
+     * until the next change of any tour, which makes repeated conditional requests free.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select max(c.version) from ChangeLogEntity c where c.tourId = :tourId")
+    Optional<Long> findTourVersion(@Param("tourId") Long tourId);
+
+    List<ChangeLogEntity> findByVersionGreaterThanOrderByVersionAscIdAsc(long version, Limit limit);
+
+    List<ChangeLogEntity> findByVersionOrderByIdAsc(long version);
+
+    /**
+     * Deletes the changes up to the given version, except the last ones of every existing tour, which
+     * {@link #findTourVersion} still needs.
+     */
+    @Modifying
+    @Query("delete from ChangeLogEntity c where c.version <= :version"
+            + " and (c.version < (select max(d.version) from ChangeLogEntity d where d.tourId = c.tourId)"
+            + " or not exists (select t.id from TourEntity t where t.id = c.tourId))")
+    int deleteUpToVersion(@Param("version") long version);
+}
@@ -0,0 +1,79 @@
+package com.tourplanner.backend.repositories;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sets some columns of one row and increments its version with a native UPDATE. A bulk update through JPQL,
+ * or a native one synchronized on the table of a cached entity or on nothing, makes Hibernate evict the whole
+ * second-level cache region of the entity, every cached tour or log for the change of one. The update is
+ * therefore synchronized on a query space that no entity is mapped to, only the patched row is evicted, and
+ * the table is registered as updated with the query cache here, the way Hibernate does for its own updates.
+ */
+final class NativePatch {
+
+    // matches no table, see the class comment
+    private static final String QUERY_SPACE = "patch";
+
+    private final String[] tables;
+    private final StringBuilder sql;
+    private final Map<String, Object> parameters;
+
+    /**
+     * @param columns column names by attribute name, the attributes that may be patched
+     * @param changes new values by attribute name
+     */
+    NativePatch(String table, Map<String, String> columns, Map<String, Object> changes) {
+        this.tables = new String[]{table};
+        this.sql = new StringBuilder("update ").append(table).append(" set version = version + 1");
+        this.parameters = new HashMap<>(changes);
+        for (String attribute : changes.keySet()) {
+            String column = columns.get(attribute);
+            if (column == null) {
+                throw new IllegalArgumentException("Attribute " + attribute + " of " + table + " cannot be patched");
+            }
+            sql.append(", ").append(column).append(" = :").append(attribute);
+        }
+        sql.append(" where id = :id");
+    }
+
+    NativePatch where(String condition, String parameter, Object value) {
+        sql.append(" and ").append(condition);
+        parameters.put(parameter, value);
+        return this;
+    }
+
+    /**
+     * Runs the update and evicts the row from the second-level cache, once right away and once the transaction
+     * has completed, since a transaction that reads the row in between would cache its previous state again.
+     * Cached query results over the table are dropped the same way, and none are stored in between.
+     *
+     * @return the number of updated rows
+     */
+    int execute(EntityManager entityManager, Class<?> entityType, Long id) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+        timestamps.preInvalidate(tables, session);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(QUERY_SPACE);
+        parameters.forEach(query::setParameter);
+        query.setParameter("id", id);
+        int updated = query.executeUpdate();
+
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(entityType, id);
+        session.getActionQueue().registerProcess((success, completed) -> {
+            cache.evict(entityType, id);
+            timestamps.invalidate(tables, completed);
+        });
+        return updated;
+    }
+}
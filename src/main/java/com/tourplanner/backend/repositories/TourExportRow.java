@@ -0,0 +1,12 @@
+package com.tourplanner.backend.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the tour export and report: a tour joined with one of its logs. The log columns are null for tours without logs.
+ */
+public record TourExportRow(Long tourId, String name, String description, String startLocation, String endLocation,
+                            String transportType, Float distance, Float estimatedTime, Long logId,
+                            LocalDateTime dateTime, String comment, String difficulty, Float totalDistance,
+                            Float totalTime, Integer rating) {
+}
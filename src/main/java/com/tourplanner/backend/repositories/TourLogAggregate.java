@@ -0,0 +1,10 @@
+package com.tourplanner.backend.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * Statistics of the logs of one tour, computed from scratch by the database.
+ */
+public record TourLogAggregate(Long tourId, Long logCount, Long ratingSum, Double totalDistance, Double totalTime,
+                               LocalDateTime lastLogDate) {
+}
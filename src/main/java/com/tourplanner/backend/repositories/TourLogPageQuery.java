@@ -0,0 +1,12 @@
+package com.tourplanner.backend.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * One page of the logs of a tour, newest first. {@code from} is inclusive, {@code to} exclusive.
+ * {@code afterDateTime} and {@code afterId} belong to the last log of the previous page and are
+ * null for the first page.
+ */
+public record TourLogPageQuery(Long tourId, LocalDateTime from, LocalDateTime to, String difficulty,
+                               LocalDateTime afterDateTime, Long afterId, int limit) {
+}
@@ -1,12 +1,51 @@
 package com.tourplanner.backend.repositories;
 
 import com.tourplanner.backend.entities.TourLogEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TourLogRepository extends JpaRepository<TourLogEntity, Long> {
+public interface TourLogRepository extends JpaRepository<TourLogEntity, Long>, TourLogRepositoryCustom {
+    // the finders below are answered from the query cache until the tour_logs table changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<TourLogEntity> findByTourId(Long tourId);
+
+    /**
+     * Version of a log, empty unless the log exists and belongs to the tour.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select l.version from TourLogEntity l where l.id = :id and l.tour.id = :tourId")
+    Optional<Long> findVersion(@Param("tourId") Long tourId, @Param("id") Long id);
+
+    /**
+     * Deletes all logs of the given tours with one statement, without loading them.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TourLogEntity l where l.tour.id in :tourIds")
+    int deleteByTourIds(@Param("tourIds") Collection<Long> tourIds);
+
+    @Query("select new com.tourplanner.backend.repositories.TourLogAggregate(l.tour.id, count(l), sum(l.rating), " +
+            "sum(l.totalDistance), sum(l.totalTime), max(l.dateTime)) " +
+            "from TourLogEntity l where l.tour.id = :tourId group by l.tour.id")
+    Optional<TourLogAggregate> aggregateByTourId(@Param("tourId") Long tourId);
+
+    @Query("select new com.tourplanner.backend.repositories.TourLogAggregate(l.tour.id, count(l), sum(l.rating), " +
+            "sum(l.totalDistance), sum(l.totalTime), max(l.dateTime)) " +
+            "from TourLogEntity l where l.tour.id in :tourIds group by l.tour.id")
+    List<TourLogAggregate> aggregateByTourIds(@Param("tourIds") Collection<Long> tourIds);
+
+    @Query("select new com.tourplanner.backend.repositories.TourLogAggregate(l.tour.id, count(l), sum(l.rating), " +
+            "sum(l.totalDistance), sum(l.totalTime), max(l.dateTime)) " +
+            "from TourLogEntity l group by l.tour.id")
+    List<TourLogAggregate> aggregateAll();
 }
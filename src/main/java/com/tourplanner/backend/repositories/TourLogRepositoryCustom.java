@@ -0,0 +1,10 @@
+package com.tourplanner.backend.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+public interface TourLogRepositoryCustom {
+    List<TourLogRow> findPage(TourLogPageQuery query);
+
+    int patch(Long tourId, Long id, Map<String, Object> changes, Long expectedVersion);
+}
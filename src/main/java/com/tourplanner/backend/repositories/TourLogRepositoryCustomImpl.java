@@ -0,0 +1,83 @@
+package com.tourplanner.backend.repositories;
+
+import com.tourplanner.backend.entities.TourLogEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class TourLogRepositoryCustomImpl implements TourLogRepositoryCustom {
+
+    // columns of the attributes a patch can set
+    private static final Map<String, String> PATCH_COLUMNS = Map.of("dateTime", "date_time", "comment", "comment",
+            "difficulty", "difficulty", "totalDistance", "total_distance", "totalTime", "total_time",
+            "rating", "rating");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Walks the (tour_id, date_time, id) index backwards from the cursor, so the latest page of a
+     * tour costs the same no matter how many logs it has. Neither the logs nor their tour are loaded
+     * as entities.
+     */
+    @Override
+    public List<TourLogRow> findPage(TourLogPageQuery query) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        conditions.add("l.tour.id = :tourId");
+        parameters.put("tourId", query.tourId());
+
+        if (query.from() != null) {
+            conditions.add("l.dateTime >= :from");
+            parameters.put("from", query.from());
+        }
+        if (query.to() != null) {
+            conditions.add("l.dateTime < :to");
+            parameters.put("to", query.to());
+        }
+        if (query.difficulty() != null) {
+            conditions.add("l.difficulty = :difficulty");
+            parameters.put("difficulty", query.difficulty());
+        }
+        if (query.afterId() != null) {
+            // the redundant bound is what the database can start the index range scan at
+            conditions.add("l.dateTime <= :afterDateTime");
+            conditions.add("(l.dateTime < :afterDateTime or (l.dateTime = :afterDateTime and l.id < :afterId))");
+            parameters.put("afterDateTime", query.afterDateTime());
+            parameters.put("afterId", query.afterId());
+        }
+
+        String jpql = "select new com.tourplanner.backend.repositories.TourLogRow(l.id, l.dateTime, l.comment, "
+                + "l.difficulty, l.totalDistance, l.totalTime, l.rating, l.version) from TourLogEntity l where "
+                + String.join(" and ", conditions)
+                + " order by l.dateTime desc, l.id desc";
+        TypedQuery<TourLogRow> typedQuery = entityManager.createQuery(jpql, TourLogRow.class);
+        parameters.forEach(typedQuery::setParameter);
+        // repeated pages are answered from the query cache until one of the tables they read changes
+        typedQuery.setHint(HibernateHints.HINT_CACHEABLE, true);
+        return typedQuery.setMaxResults(query.limit()).getResultList();
+    }
+
+    /**
+     * Sets the given attributes and increments the version with one UPDATE, without loading the log. The log
+     * is only updated if it belongs to the given tour and, with an expected version, is still at that version.
+     *
+     * @param changes new values by attribute name
+     * @return the number of updated rows
+     */
+    @Override
+    public int patch(Long tourId, Long id, Map<String, Object> changes, Long expectedVersion) {
+        NativePatch patch = new NativePatch("tour_logs", PATCH_COLUMNS, changes)
+                .where("tour_id = :tourId", "tourId", tourId);
+        if (expectedVersion != null) {
+            patch.where("version = :expectedVersion", "expectedVersion", expectedVersion);
+        }
+        return patch.execute(entityManager, TourLogEntity.class, id);
+    }
+}
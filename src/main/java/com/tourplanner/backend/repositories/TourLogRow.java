@@ -0,0 +1,17 @@
+package com.tourplanner.backend.repositories;
+
+import com.tourplanner.backend.entities.TourLogEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a tour log selected straight from the database, without a managed entity or its tour.
+ */
+public record TourLogRow(Long id, LocalDateTime dateTime, String comment, String difficulty, Float totalDistance,
+                         Float totalTime, Integer rating, Long version) {
+
+    public static TourLogRow of(TourLogEntity entity) {
+        return new TourLogRow(entity.getId(), entity.getDateTime(), entity.getComment(), entity.getDifficulty(),
+                entity.getTotalDistance(), entity.getTotalTime(), entity.getRating(), entity.getVersion());
+    }
+}
@@ -0,0 +1,9 @@
+package com.tourplanner.backend.repositories;
+
+/**
+ * One page of tours. {@code afterId} and {@code afterValue} are the id and sort value of the
+ * last tour of the previous page and are null for the first page.
+ */
+public record TourPageQuery(TourSortField sort, boolean descending, String transportType, Float minDistance,
+                            Float maxDistance, Double minRating, Long afterId, Object afterValue, int limit) {
+}
@@ -1,9 +1,70 @@
 package com.tourplanner.backend.repositories;
 
 import com.tourplanner.backend.entities.TourEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface TourRepository extends JpaRepository<TourEntity, Long> {
+public interface TourRepository extends JpaRepository<TourEntity, Long>, TourRepositoryCustom {
+    // the finders below are answered from the query cache until the tours table changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t.id from TourEntity t")
+    List<Long> findAllIds();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t.version from TourEntity t where t.id = :id")
+    Optional<Long> findVersion(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t.id from TourEntity t where t.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the given tours with one statement, without loading them. Their logs have to be deleted first.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TourEntity t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams the ids of all tours in ascending order through a database cursor. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select t.id from TourEntity t order by t.id")
+    Stream<Long> streamAllIds();
+
+    /**
+     * Streams every tour joined with its logs, ordered by tour and log id, through a database cursor.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.tourplanner.backend.repositories.TourExportRow(" +
+            "t.id, t.name, t.description, t.startLocation, t.endLocation, t.transportType, t.distance, t.estimatedTime, " +
+            "l.id, l.dateTime, l.comment, l.difficulty, l.totalDistance, l.totalTime, l.rating) " +
+            "from TourEntity t left join TourLogEntity l on l.tour = t " +
+            "order by t.id, l.id")
+    Stream<TourExportRow> streamExportRows();
+
+    /**
+     * Streams the given tours joined with their logs, ordered by tour and log id, through a database cursor.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.tourplanner.backend.repositories.TourExportRow(" +
+            "t.id, t.name, t.description, t.startLocation, t.endLocation, t.transportType, t.distance, t.estimatedTime, " +
+            "l.id, l.dateTime, l.comment, l.difficulty, l.totalDistance, l.totalTime, l.rating) " +
+            "from TourEntity t left join TourLogEntity l on l.tour = t " +
+            "where t.id in :ids order by t.id, l.id")
+    Stream<TourExportRow> streamExportRows(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,10 @@
+package com.tourplanner.backend.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+public interface TourRepositoryCustom {
+    List<TourRow> findPage(TourPageQuery query);
+
+    int patch(Long id, Map<String, Object> changes, Long expectedVersion);
+}
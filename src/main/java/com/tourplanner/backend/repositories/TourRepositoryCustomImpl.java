@@ -0,0 +1,107 @@
+package com.tourplanner.backend.repositories;
+
+import com.tourplanner.backend.entities.TourEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class TourRepositoryCustomImpl implements TourRepositoryCustom {
+
+    // columns of the attributes a patch can set
+    private static final Map<String, String> PATCH_COLUMNS = Map.of("name", "name", "description", "description",
+            "startLocation", "start_location", "endLocation", "end_location", "transportType", "transport_type",
+            "distance", "distance", "estimatedTime", "estimated_time");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Seeks directly to the position after the cursor instead of using an offset, so every page is
+     * a range scan on the (sort column, id) index no matter how deep it is. Selects the columns into
+     * {@link TourRow}s, so no entities are put into the persistence context.
+     */
+    @Override
+    public List<TourRow> findPage(TourPageQuery query) {
+        TourSortField sort = query.sort();
+        boolean joinStats = sort.needsStats() || query.minRating() != null;
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (query.transportType() != null) {
+            conditions.add("t.transportType = :transportType");
+            parameters.put("transportType", query.transportType());
+        }
+        if (query.minDistance() != null) {
+            conditions.add("t.distance >= :minDistance");
+            parameters.put("minDistance", query.minDistance());
+        }
+        if (query.maxDistance() != null) {
+            conditions.add("t.distance <= :maxDistance");
+            parameters.put("maxDistance", query.maxDistance());
+        }
+        if (query.minRating() != null) {
+            conditions.add(TourSortField.AVG_RATING.getExpression() + " >= :minRating");
+            parameters.put("minRating", query.minRating());
+        }
+        if (query.afterId() != null) {
+            String comparison = query.descending() ? "<" : ">";
+            if (sort == TourSortField.ID) {
+                conditions.add("t.id " + comparison + " :afterId");
+            } else {
+                String expression = sort.getExpression();
+                // the redundant bound is what the database can start the index range scan at
+                conditions.add(expression + " " + comparison + "= :afterValue");
+                conditions.add("(" + expression + " " + comparison + " :afterValue or (" + expression
+                        + " = :afterValue and t.id " + comparison + " :afterId))");
+                parameters.put("afterValue", query.afterValue());
+            }
+            parameters.put("afterId", query.afterId());
+        }
+
+        StringBuilder jpql = new StringBuilder("select new com.tourplanner.backend.repositories.TourRow(t.id, t.name, "
+                + "t.description, t.startLocation, t.endLocation, t.transportType, t.distance, t.estimatedTime, t.version) "
+                + "from TourEntity t");
+        if (joinStats) {
+            // tours written by an instance that predates tour_stats may have no row until the next startup
+            // backfills it, a left join keeps them in the listing and pages at a rating of 0
+            jpql.append(" left join TourStatsEntity s on s.tourId = t.id");
+        }
+        if (!conditions.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", conditions));
+        }
+        String direction = query.descending() ? " desc" : " asc";
+        if (sort != TourSortField.ID) {
+            jpql.append(" order by ").append(sort.getExpression()).append(direction).append(", t.id").append(direction);
+        } else {
+            jpql.append(" order by t.id").append(direction);
+        }
+
+        TypedQuery<TourRow> typedQuery = entityManager.createQuery(jpql.toString(), TourRow.class);
+        parameters.forEach(typedQuery::setParameter);
+        // repeated pages are answered from the query cache until one of the tables they read changes
+        typedQuery.setHint(HibernateHints.HINT_CACHEABLE, true);
+        return typedQuery.setMaxResults(query.limit()).getResultList();
+    }
+
+    /**
+     * Sets the given attributes and increments the version with one UPDATE, without loading the tour. With an
+     * expected version, a tour that is no longer at that version is left unchanged.
+     *
+     * @param changes new values by attribute name
+     * @return the number of updated rows
+     */
+    @Override
+    public int patch(Long id, Map<String, Object> changes, Long expectedVersion) {
+        NativePatch patch = new NativePatch("tours", PATCH_COLUMNS, changes);
+        if (expectedVersion != null) {
+            patch.where("version = :expectedVersion", "expectedVersion", expectedVersion);
+        }
+        return patch.execute(entityManager, TourEntity.class, id);
+    }
+}
@@ -0,0 +1,16 @@
+package com.tourplanner.backend.repositories;
+
+import com.tourplanner.backend.entities.TourEntity;
+
+/**
+ * Columns of a tour selected straight from the database, without a managed entity.
+ */
+public record TourRow(Long id, String name, String description, String startLocation, String endLocation,
+                      String transportType, Float distance, Float estimatedTime, Long version) {
+
+    public static TourRow of(TourEntity entity) {
+        return new TourRow(entity.getId(), entity.getName(), entity.getDescription(), entity.getStartLocation(),
+                entity.getEndLocation(), entity.getTransportType(), entity.getDistance(), entity.getEstimatedTime(),
+                entity.getVersion());
+    }
+}
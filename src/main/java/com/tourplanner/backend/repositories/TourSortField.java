@@ -0,0 +1,53 @@
+package com.tourplanner.backend.repositories;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Columns tours can be sorted by. Every sort is tie-broken by the tour id, so (sort value, id)
+ * identifies a position in the result and can be used as a keyset cursor.
+ */
+public enum TourSortField {
+    ID("id", "t.id"),
+    NAME("name", "t.name"),
+    DISTANCE("distance", "t.distance"),
+    ESTIMATED_TIME("estTime", "t.estimatedTime"),
+    // tours without a statistics row have no ratings yet, see TourRepositoryCustomImpl.findPage
+    AVG_RATING("avgRating", "coalesce(s.avgRating, 0.0)");
+
+    private final String parameterName;
+    private final String expression;
+
+    TourSortField(String parameterName, String expression) {
+        this.parameterName = parameterName;
+        this.expression = expression;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    String getExpression() {
+        return expression;
+    }
+
+    boolean needsStats() {
+        return this == AVG_RATING;
+    }
+
+    /**
+     * Converts a sort value taken from a cursor back to the type of the sorted column.
+     */
+    public Object parseValue(String value) {
+        return switch (this) {
+            case ID -> null;
+            case NAME -> value;
+            case DISTANCE, ESTIMATED_TIME -> Float.valueOf(value);
+            case AVG_RATING -> Double.valueOf(value);
+        };
+    }
+
+    public static Optional<TourSortField> fromParameterName(String parameterName) {
+        return Arrays.stream(values()).filter(field -> field.parameterName.equals(parameterName)).findFirst();
+    }
+}
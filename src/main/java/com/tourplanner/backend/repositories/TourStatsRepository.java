@@ -0,0 +1,78 @@
+package com.tourplanner.backend.repositories;
+
+import com.tourplanner.backend.entities.TourStatsEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface TourStatsRepository extends JpaRepository<TourStatsEntity, Long> {
+
+    /**
+     * Adds the given deltas to the statistics row of a tour in place.
+     *
+     * @return the number of updated rows, 0 if the tour has no statistics row yet
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update TourStatsEntity s set s.logCount = s.logCount + :logCount, s.ratingSum = s.ratingSum + :ratingSum, " +
+            "s.totalDistance = s.totalDistance + :distance, s.totalTime = s.totalTime + :time where s.tourId = :tourId")
+    int applyDelta(@Param("tourId") Long tourId, @Param("logCount") long logCount, @Param("ratingSum") long ratingSum,
+                   @Param("distance") double distance, @Param("time") double time);
+
+    /**
+     * Recomputes the values that cannot be maintained with deltas, the last log date and the average rating.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update TourStatsEntity s set " +
+            "s.lastLogDate = (select max(l.dateTime) from TourLogEntity l where l.tour.id = :tourId), " +
+            "s.avgRating = case when s.logCount > 0 then cast(s.ratingSum as double) / s.logCount else 0.0 end " +
+            "where s.tourId = :tourId")
+    int refreshDerived(@Param("tourId") Long tourId);
+
+    /**
+     * Replaces the values of a log in the statistics of its tour with the given ones, by subtracting the current
+     * values of the log and adding the new ones. A null value leaves its sum alone. Runs before the log is patched
+     * and changes nothing if the log does not belong to the tour or, with an expected version, is no longer at it.
+     * Concurrent patches of the logs of a tour wait for each other on the statistics row.
+     *
+     * @return the number of updated rows, 0 if the log does not match or the tour has no statistics row yet
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update TourStatsEntity s set " +
+            "s.ratingSum = s.ratingSum + coalesce(:rating - (select l.rating from TourLogEntity l where l.id = :tourLogId), 0), " +
+            "s.totalDistance = s.totalDistance + coalesce(:distance - (select l.totalDistance from TourLogEntity l where l.id = :tourLogId), 0.0), " +
+            "s.totalTime = s.totalTime + coalesce(:time - (select l.totalTime from TourLogEntity l where l.id = :tourLogId), 0.0) " +
+            "where s.tourId = :tourId and exists (select l.id from TourLogEntity l where l.id = :tourLogId " +
+            "and l.tour.id = :tourId and (:expectedVersion is null or l.version = :expectedVersion))")
+    int applyPatchDelta(@Param("tourId") Long tourId, @Param("tourLogId") Long tourLogId,
+                        @Param("rating") Integer rating, @Param("distance") Float distance, @Param("time") Float time,
+                        @Param("expectedVersion") Long expectedVersion);
+
+    /**
+     * Creates the statistics rows of all tours that have none, computed from their logs, with one statement.
+     * Rows created concurrently by another instance are left alone.
+     *
+     * @return the number of created rows
+     */
+    @Modifying
+    @Query(value = "insert into tour_stats (tour_id, log_count, rating_sum, total_distance, total_time, " +
+            "last_log_date, avg_rating) " +
+            "select t.id, count(l.id), coalesce(sum(l.rating), 0), coalesce(sum(l.total_distance), 0), " +
+            "coalesce(sum(l.total_time), 0), max(l.date_time), coalesce(avg(cast(l.rating as double precision)), 0) " +
+            "from tours t left join tour_logs l on l.tour_id = t.id " +
+            "where not exists (select 1 from tour_stats s where s.tour_id = t.id) group by t.id " +
+            "on conflict do nothing", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tour_stats"))
+    int insertMissing();
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TourStatsEntity s where s.tourId in :tourIds")
+    int deleteByTourIds(@Param("tourIds") Collection<Long> tourIds);
+}
@@ -0,0 +1,40 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.config.CacheRegion;
+import com.tourplanner.backend.dtos.CacheRegionStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hit, miss and put counts of the regions of the second-level cache, taken from the Hibernate statistics.
+ * Empty while {@code hibernate.generate_statistics} is off.
+ */
+@Service
+public class CacheRegionStatsService {
+    private final Statistics statistics;
+
+    public CacheRegionStatsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public List<CacheRegionStatsDto> stats() {
+        List<CacheRegionStatsDto> stats = new ArrayList<>();
+        if (!statistics.isStatisticsEnabled()) {
+            return stats;
+        }
+        for (CacheRegion region : CacheRegion.values()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region.regionName());
+            if (regionStatistics != null) {
+                stats.add(new CacheRegionStatsDto(region.regionName(), regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(), regionStatistics.getPutCount()));
+            }
+        }
+        return stats;
+    }
+}
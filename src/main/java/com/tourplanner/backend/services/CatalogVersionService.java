@@ -0,0 +1,38 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.repositories.CatalogVersionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Version of the whole catalogue of tours and tour logs. Incrementing it locks the version row
+ * until the surrounding transaction ends, so versions become visible in increasing order. Writers
+ * serialize on that lock, so they increment as their last statement.
+ */
+@Service
+public class CatalogVersionService {
+    private static final Integer ROW_ID = 1;
+
+    private final CatalogVersionRepository catalogVersionRepository;
+
+    public CatalogVersionService(CatalogVersionRepository catalogVersionRepository) {
+        this.catalogVersionRepository = catalogVersionRepository;
+    }
+
+    public long current() {
+        return catalogVersionRepository.findVersion(ROW_ID).orElse(0L);
+    }
+
+    /**
+     * Increments the version as part of the calling transaction and returns the new value.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long increment() {
+        if (catalogVersionRepository.increment(ROW_ID) == 0) {
+            catalogVersionRepository.insertIfMissing(ROW_ID);
+            catalogVersionRepository.increment(ROW_ID);
+        }
+        return current();
+    }
+}
@@ -0,0 +1,56 @@
+package com.tourplanner.backend.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prunes the change log every {@code tourplanner.changes.prune-interval}. Every instance prunes, the deletes
+ * of one make those of the others find nothing.
+ */
+@Component
+public class ChangeLogPruner {
+    private static final Logger logger = LogManager.getLogger(ChangeLogPruner.class);
+
+    private final ChangeLogService changeLogService;
+    private final Duration interval;
+    private final ScheduledExecutorService executor;
+
+    public ChangeLogPruner(ChangeLogService changeLogService,
+                           @Value("${tourplanner.changes.prune-interval:1h}") Duration interval) {
+        this.changeLogService = changeLogService;
+        this.interval = interval;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-log-pruner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::prune, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void prune() {
+        // an exception would cancel the following runs
+        try {
+            changeLogService.prune();
+        } catch (RuntimeException e) {
+            logger.warn("Could not prune the change log", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.ChangeDto;
+import com.tourplanner.backend.dtos.ChangeFeedDto;
+import com.tourplanner.backend.entities.ChangeLogEntity;
+import com.tourplanner.backend.events.TourChangedEvent;
+import com.tourplanner.backend.repositories.ChangeLogRepository;
+import io.micrometer.core.annotation.Timed;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Records every change to tours and tour logs with its catalogue version and serves them as a feed, so
+ * clients can sync the changes since the version they last saw instead of downloading everything again.
+ * Only the changes of the last {@code tourplanner.changes.retained-versions} catalogue versions are kept,
+ * a client further behind gets 410 Gone and has to load the tours again.
+ */
+@Service
+@Timed("tourplanner.service")
+public class ChangeLogService {
+    private static final Logger logger = LogManager.getLogger(ChangeLogService.class);
+
+    static final int DEFAULT_LIMIT = 500;
+    static final int MAX_LIMIT = 5000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final long retainedVersions;
+
+    public ChangeLogService(ChangeLogRepository changeLogRepository, CatalogVersionService catalogVersionService,
+                            @Value("${tourplanner.changes.retained-versions:100000}") long retainedVersions) {
+        this.changeLogRepository = changeLogRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.retainedVersions = retainedVersions;
+    }
+
+    /**
+     * Stores the change as part of the transaction that made it. Changes of other instances arrive outside
+     * of a transaction and are not recorded again.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTourChanged(TourChangedEvent event) {
+        changeLogRepository.save(new ChangeLogEntity(event.catalogVersion(), event.tourId(), event.tourLogId(),
+                event.changeType()));
+    }
+
+    /**
+     * Catalogue version of the last change to the tour or one of its logs, 0 if it has not changed since
+     * changes are recorded. Pruning keeps the last changes of every tour, so the version stays the same.
+     */
+    public long tourVersion(Long tourId) {
+        return changeLogRepository.findTourVersion(tourId).orElse(0L);
+    }
+
+    /**
+     * Returns the changes committed after the given version in version order. All changes of one version
+     * are returned together, so a page may exceed the limit if a single version contains more changes.
+     */
+    public ChangeFeedDto getChanges(long since, Integer limit) {
+        if (since < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Version must not be negative");
+        }
+        int pageSize = DEFAULT_LIMIT;
+        if (limit != null) {
+            if (limit < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive");
+            }
+            pageSize = Math.min(limit, MAX_LIMIT);
+        }
+        // versions are committed in order, so every change up to the current version is visible below
+        long current = catalogVersionService.current();
+        long pruned = current - retainedVersions;
+        if (since < pruned) {
+            throw new ResponseStatusException(HttpStatus.GONE,
+                    "Changes up to version " + pruned + " are no longer kept, the tours have to be loaded again");
+        }
+        List<ChangeLogEntity> changes = changeLogRepository.findByVersionGreaterThanOrderByVersionAscIdAsc(
+                since, Limit.of(pageSize + 1));
+        if (changes.size() <= pageSize) {
+            long version = Math.max(since, current);
+            if (!changes.isEmpty()) {
+                version = Math.max(version, changes.get(changes.size() - 1).getVersion());
+            }
+            return new ChangeFeedDto(version, toDtos(changes), false);
+        }
+
+        // the page must not end in the middle of a version
+        long boundary = changes.get(pageSize).getVersion();
+        List<ChangeLogEntity> complete = changes.stream().filter(change -> change.getVersion() < boundary).toList();
+        if (complete.isEmpty()) {
+            return new ChangeFeedDto(boundary, toDtos(changeLogRepository.findByVersionOrderByIdAsc(boundary)), true);
+        }
+        return new ChangeFeedDto(complete.get(complete.size() - 1).getVersion(), toDtos(complete), true);
+    }
+
+    /**
+     * Deletes the changes of the versions before the retained ones, which {@link #getChanges} no longer serves.
+     *
+     * @return the number of deleted changes
+     */
+    @Transactional
+    public int prune() {
+        long pruned = catalogVersionService.current() - retainedVersions;
+        if (pruned <= 0) {
+            return 0;
+        }
+        int deleted = changeLogRepository.deleteUpToVersion(pruned);
+        logger.info("Pruned {} changes up to version {}", deleted, pruned);
+        return deleted;
+    }
+
+    private List<ChangeDto> toDtos(List<ChangeLogEntity> changes) {
+        return changes.stream()
+                .map(change -> new ChangeDto(change.getVersion(), change.getTourId(), change.getTourLogId(),
+                        change.getChangeType().name()))
+                .toList();
+    }
+}
@@ -0,0 +1,36 @@
+package com.tourplanner.backend.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the position of the last element of a page into an opaque continuation token.
+ * Only the last part of a cursor may contain the separator.
+ */
+final class PageCursor {
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    static String encode(String... parts) {
+        String joined = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor, int expectedParts) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = joined.split("\\" + SEPARATOR, expectedParts);
+            if (parts.length != expectedParts) {
+                throw new IllegalArgumentException("Expected " + expectedParts + " cursor parts");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
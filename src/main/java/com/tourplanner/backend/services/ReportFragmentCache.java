@@ -0,0 +1,158 @@
+package com.tourplanner.backend.services;
+
+import com.lowagie.text.Element;
+import com.lowagie.text.Phrase;
+import com.tourplanner.backend.events.CatalogInvalidatedEvent;
+import com.tourplanner.backend.events.TourChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Least recently used cache of rendered report sections, the elements of one tour each. A fragment is
+ * dropped as soon as a change to its tour or one of the tour's logs is committed. The cache is bounded by
+ * the estimated heap size of its fragments rather than their number, since a tour with many logs has a much
+ * larger section than one without.
+ */
+@Component
+public class ReportFragmentCache {
+    // estimated heap size of a paragraph with one chunk and its font and attributes, without the text
+    static final long ELEMENT_BYTES = 400;
+
+    private final Map<Long, List<Element>> fragments;
+    private final long maxBytes;
+    private long bytes;
+    // invalidation count at the last change of each recently changed tour, so a fragment read before its
+    // tour changed is not stored while fragments of other tours still are
+    private final Map<Long, Long> invalidatedAt;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong invalidations = new AtomicLong();
+    // fragments read before this count are not stored, raised when a tour is dropped from invalidatedAt
+    private long floor;
+
+    /**
+     * @param maxSize    estimated heap size the fragments may take up together
+     * @param maxChanges number of recently changed tours whose last change is remembered
+     */
+    public ReportFragmentCache(@Value("${tourplanner.report.fragment-cache.max-size:32MB}") DataSize maxSize,
+                               @Value("${tourplanner.report.fragment-cache.max-changes:10000}") int maxChanges) {
+        this.maxBytes = maxSize.toBytes();
+        this.fragments = new LinkedHashMap<>(16, 0.75f, true);
+        this.invalidatedAt = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() > maxChanges) {
+                    floor = Math.max(floor, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Estimates the heap size of a fragment from the number of its elements and the length of their text.
+     */
+    static long weigh(List<Element> fragment) {
+        long weight = 0;
+        for (Element element : fragment) {
+            weight += ELEMENT_BYTES;
+            if (element instanceof Phrase phrase) {
+                weight += 2L * phrase.getContent().length();
+            }
+        }
+        return weight;
+    }
+
+    public List<Element> get(Long tourId) {
+        lock.lock();
+        try {
+            return fragments.get(tourId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a stamp that has to be taken before the data of a fragment is read and passed to {@link #put}.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Stores the fragment unless its tour was changed after the stamp was taken.
+     */
+    public void put(Long tourId, List<Element> fragment, long stamp) {
+        lock.lock();
+        try {
+            if (stamp >= floor && invalidatedAt.getOrDefault(tourId, 0L) <= stamp) {
+                long weight = weigh(fragment);
+                // a fragment larger than the whole cache would only evict all others
+                if (weight > maxBytes) {
+                    return;
+                }
+                remove(tourId);
+                fragments.put(tourId, fragment);
+                bytes += weight;
+                Iterator<Map.Entry<Long, List<Element>>> eldest = fragments.entrySet().iterator();
+                while (bytes > maxBytes) {
+                    bytes -= weigh(eldest.next().getValue());
+                    eldest.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long tourId) {
+        lock.lock();
+        try {
+            // moved to the end, so the eldest entry is the one changed longest ago
+            invalidatedAt.remove(tourId);
+            invalidatedAt.put(tourId, invalidations.incrementAndGet());
+            remove(tourId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            floor = invalidations.incrementAndGet();
+            invalidatedAt.clear();
+            fragments.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Long tourId) {
+        List<Element> removed = fragments.remove(tourId);
+        if (removed != null) {
+            bytes -= weigh(removed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        invalidate(event.tourId());
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        invalidateAll();
+    }
+}
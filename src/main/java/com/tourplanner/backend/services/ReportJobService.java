@@ -0,0 +1,250 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.ReportJobDto;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Renders the all-tours report in the background and keeps the finished PDFs in a local file store.
+ * Artifacts are named after the catalogue version they were rendered for, so as long as no tour or
+ * log changes every job reuses the last rendered file.
+ */
+@Service
+@Timed("tourplanner.service")
+public class ReportJobService {
+    private static final Logger logger = LogManager.getLogger(ReportJobService.class);
+
+    private final TourReportService tourReportService;
+    private final CatalogVersionService catalogVersionService;
+    private final Path storeDirectory;
+    private final Duration maxAge;
+    private final long maxStoreSize;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // makes finding an unfinished job and registering a new one atomic
+    private final ReentrantLock submitLock = new ReentrantLock();
+
+    public ReportJobService(TourReportService tourReportService, CatalogVersionService catalogVersionService,
+                            @Value("${tourplanner.report.store-dir:${java.io.tmpdir}/tourplanner-reports}") Path storeDirectory,
+                            @Value("${tourplanner.report.workers:2}") int workers,
+                            @Value("${tourplanner.report.queue-capacity:8}") int queueCapacity,
+                            @Value("${tourplanner.report.max-age:24h}") Duration maxAge,
+                            @Value("${tourplanner.report.max-store-size:1073741824}") long maxStoreSize) {
+        this.tourReportService = tourReportService;
+        this.catalogVersionService = catalogVersionService;
+        this.storeDirectory = storeDirectory;
+        this.maxAge = maxAge;
+        this.maxStoreSize = maxStoreSize;
+        try {
+            Files.createDirectories(storeDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create report store " + storeDirectory, e);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "report-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ReportJobDto submit() {
+        // the version is read before the data, so an artifact never contains data older than its name says
+        long catalogVersion = catalogVersionService.current();
+        Path artifact = storeDirectory.resolve("all-tours-v" + catalogVersion + ".pdf");
+        ReportJob job;
+        submitLock.lock();
+        try {
+            for (ReportJob existing : jobs.values()) {
+                if (existing.catalogVersion != catalogVersion) {
+                    continue;
+                }
+                if (existing.isUnfinished()) {
+                    return toDto(existing);
+                }
+                // a job per version, so repeated requests for an unchanged catalogue do not add jobs
+                if (existing.status == ReportJobStatus.DONE && Files.exists(existing.artifact)) {
+                    logger.info("Reusing report job {} of catalog version {}", existing.id, catalogVersion);
+                    touch(existing.artifact);
+                    return toDto(existing);
+                }
+            }
+            job = new ReportJob(UUID.randomUUID().toString(), catalogVersion, artifact);
+            jobs.put(job.id, job);
+        } finally {
+            submitLock.unlock();
+        }
+
+        if (Files.exists(artifact)) {
+            logger.info("Reusing report of catalog version {}", catalogVersion);
+            touch(artifact);
+            job.status = ReportJobStatus.DONE;
+            return toDto(job);
+        }
+        try {
+            executor.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            logger.error("Report job queue is full, rejecting job {}", job.id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many reports are being generated");
+        }
+        logger.info("Queued report job {} for catalog version {}", job.id, catalogVersion);
+        return toDto(job);
+    }
+
+    public ReportJobDto getJob(String jobId) {
+        return toDto(findJob(jobId));
+    }
+
+    public Resource getArtifact(String jobId) {
+        ReportJob job = findJob(jobId);
+        if (job.status != ReportJobStatus.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report is not finished yet");
+        }
+        if (!Files.exists(job.artifact)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Report was evicted, please request a new one");
+        }
+        return new FileSystemResource(job.artifact);
+    }
+
+    private ReportJob findJob(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            logger.error("Report job with id {} was not found", jobId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job not found");
+        }
+        return job;
+    }
+
+    private void render(ReportJob job) {
+        job.status = ReportJobStatus.RUNNING;
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(storeDirectory, "report-", ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                tourReportService.writeAllToursPdf(out);
+            }
+            Files.move(temporary, job.artifact, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.status = ReportJobStatus.DONE;
+            logger.info("Report job {} finished", job.id);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Report job {} failed", job.id, e);
+            job.error = e.getMessage();
+            job.status = ReportJobStatus.FAILED;
+            if (temporary != null) {
+                delete(temporary);
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Removes finished jobs and artifacts older than the maximum age, then the oldest artifacts until
+     * the store fits into its size limit. The most recent artifact is always kept.
+     */
+    void evict() {
+        Instant expiry = Instant.now().minus(maxAge);
+        jobs.values().removeIf(job -> !job.isUnfinished() && job.createdAt.isBefore(expiry));
+
+        List<Path> artifacts;
+        try (Stream<Path> files = Files.list(storeDirectory)) {
+            artifacts = files.filter(file -> file.getFileName().toString().endsWith(".pdf"))
+                    .sorted(Comparator.comparing((Path file) -> lastModified(file)).reversed())
+                    .toList();
+        } catch (IOException e) {
+            logger.warn("Could not list report store {}", storeDirectory, e);
+            return;
+        }
+        long storeSize = 0;
+        for (int i = 0; i < artifacts.size(); i++) {
+            Path artifact = artifacts.get(i);
+            long size = artifact.toFile().length();
+            if (i > 0 && (lastModified(artifact).isBefore(expiry) || storeSize + size > maxStoreSize)) {
+                logger.info("Evicting report {}", artifact.getFileName());
+                delete(artifact);
+            } else {
+                storeSize += size;
+            }
+        }
+    }
+
+    private Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            logger.warn("Could not touch report {}", file, e);
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report {}", file, e);
+        }
+    }
+
+    private ReportJobDto toDto(ReportJob job) {
+        return new ReportJobDto(job.id, job.status.name(), job.catalogVersion, job.createdAt.toString(), job.error);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class ReportJob {
+        private final String id;
+        private final long catalogVersion;
+        private final Path artifact;
+        private final Instant createdAt = Instant.now();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile String error;
+
+        private ReportJob(String id, long catalogVersion, Path artifact) {
+            this.id = id;
+            this.catalogVersion = catalogVersion;
+            this.artifact = artifact;
+        }
+
+        private boolean isUnfinished() {
+            return status == ReportJobStatus.QUEUED || status == ReportJobStatus.RUNNING;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.tourplanner.backend.services;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,179 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.TourCacheStatsDto;
+import com.tourplanner.backend.dtos.TourDto;
+import com.tourplanner.backend.dtos.TourPageDto;
+import com.tourplanner.backend.events.CatalogInvalidatedEvent;
+import com.tourplanner.backend.events.TourChangedEvent;
+import com.tourplanner.backend.repositories.TourPageQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Least recently used cache of assembled {@link TourDto}s and of the pages of {@code GET /tours}. Entries
+ * expire after a fixed time and are dropped as soon as a change to the name, route, rating or popularity
+ * of a tour is committed. Since any such change can move a tour between pages, it drops all pages.
+ */
+@Component
+public class TourCache {
+    private final Map<Long, Entry<TourDto>> tours;
+    private final Map<TourPageQuery, Entry<TourPageDto>> pages;
+    private final long timeToLiveNanos;
+    // a lock instead of synchronized, which would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    // counts invalidations, so values loaded from data read before one are not stored
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public TourCache(@Value("${tourplanner.cache.tours.max-size:10000}") int maxTours,
+                     @Value("${tourplanner.cache.pages.max-size:256}") int maxPages,
+                     @Value("${tourplanner.cache.tours.ttl:5m}") Duration timeToLive) {
+        this.tours = lruMap(maxTours);
+        this.pages = lruMap(maxPages);
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    private <K, V> Map<K, V> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a stamp that has to be taken before the data of a value is read and passed to the put methods.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public TourPageDto getPage(TourPageQuery query) {
+        lock.lock();
+        try {
+            return get(pages, query);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void putPage(TourPageQuery query, TourPageDto page, long stamp) {
+        lock.lock();
+        try {
+            if (invalidations.get() == stamp) {
+                pages.put(query, new Entry<>(page, System.nanoTime() + timeToLiveNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the cached tours among the given ids, tours that are not cached are missing from the result.
+     */
+    public Map<Long, TourDto> getTours(Collection<Long> tourIds) {
+        lock.lock();
+        try {
+            Map<Long, TourDto> cached = new HashMap<>();
+            for (Long tourId : tourIds) {
+                TourDto tour = get(tours, tourId);
+                if (tour != null) {
+                    cached.put(tourId, tour);
+                }
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void putTours(Collection<TourDto> tourDtos, long stamp) {
+        lock.lock();
+        try {
+            if (invalidations.get() != stamp) {
+                return;
+            }
+            long expiresAt = System.nanoTime() + timeToLiveNanos;
+            for (TourDto tour : tourDtos) {
+                tours.put(tour.getId(), new Entry<>(tour, expiresAt));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long tourId) {
+        lock.lock();
+        try {
+            invalidations.incrementAndGet();
+            tours.remove(tourId);
+            pages.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidations.incrementAndGet();
+            tours.clear();
+            pages.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TourCacheStatsDto stats() {
+        lock.lock();
+        try {
+            return new TourCacheStatsDto(hits.get(), misses.get(), evictions.get(), tours.size(), pages.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        if (event.summaryChanged()) {
+            invalidate(event.tourId());
+        }
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        invalidateAll();
+    }
+
+    private <K, V> V get(Map<K, Entry<V>> map, K key) {
+        Entry<V> entry = map.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() < 0) {
+            map.remove(key);
+            evictions.incrementAndGet();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.ChangeDto;
+import com.tourplanner.backend.events.CatalogInvalidatedEvent;
+import com.tourplanner.backend.events.TourChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes committed changes of tours and tour logs to subscribers as server-sent events. Connections are
+ * held by the servlet container's async support, so idle subscribers do not occupy a thread. Events are
+ * queued per subscriber and written by a small pool of sender threads. A subscriber whose queue overflows
+ * loses the queued events and gets a {@code resync} event instead, after which it has to catch up through
+ * {@code GET /tours/changes}. A subscriber whose client does not accept a write within the send timeout is
+ * dropped, and the sender stuck on it is replaced until the write returns, so slow clients cannot take the
+ * senders away from the others.
+ */
+@Service
+public class TourChangeStream {
+    private static final Logger logger = LogManager.getLogger(TourChangeStream.class);
+
+    static final String CHANGE_EVENT = "tour-changed";
+    static final String RESYNC_EVENT = "resync";
+
+    // states of Subscriber.sending besides the start time of a write
+    private static final long IDLE = 0;
+    private static final long STALLED = -1;
+
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final long origin = System.nanoTime();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeats;
+    // a lock instead of synchronized, which would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public TourChangeStream(@Value("${tourplanner.stream.max-subscribers:10000}") int maxSubscribers,
+                            @Value("${tourplanner.stream.buffer-size:256}") int bufferSize,
+                            @Value("${tourplanner.stream.senders:4}") int senders,
+                            @Value("${tourplanner.stream.timeout:30m}") Duration timeout,
+                            @Value("${tourplanner.stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+                            @Value("${tourplanner.stream.send-timeout:10s}") Duration sendTimeout) {
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senders, senders, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stream-sender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        long stallCheckInterval = Math.max(1, sendTimeout.toMillis() / 2);
+        heartbeats.scheduleWithFixedDelay(this::dropStalledSubscribers, stallCheckInterval, stallCheckInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of the changes of the given tours, or of all tours if none are given.
+     */
+    public SseEmitter subscribe(Collection<Long> tourIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many subscribers");
+        }
+        return subscribe(tourIds, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Collection<Long> tourIds, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, tourIds == null || tourIds.isEmpty() ? null : Set.copyOf(tourIds));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        logger.info("Subscriber added, {} subscribed", subscribers.size());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        ChangeDto change = new ChangeDto(event.catalogVersion(), event.tourId(), event.tourLogId(),
+                event.changeType().name());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.tourIds == null || subscriber.tourIds.contains(event.tourId())) {
+                subscriber.enqueue(SseEmitter.event()
+                        .id(String.valueOf(event.catalogVersion()))
+                        .name(CHANGE_EVENT)
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.resync();
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            // an unsent event keeps the connection busy anyway
+            if (subscriber.queue.isEmpty()) {
+                subscriber.enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    /**
+     * Drops the subscribers whose current write has not returned within the send timeout and adds a sender
+     * for each of them, since the write keeps its sender until the connection fails or the client reads.
+     */
+    private void dropStalledSubscribers() {
+        long now = clock();
+        for (Subscriber subscriber : subscribers) {
+            long sendingSince = subscriber.sending.get();
+            if (sendingSince <= IDLE || now - sendingSince <= sendTimeoutNanos) {
+                continue;
+            }
+            // added first, so the sender that returns from the write cannot shrink the pool below its size
+            resizeSenders(1);
+            if (subscriber.sending.compareAndSet(sendingSince, STALLED)) {
+                subscribers.remove(subscriber);
+                logger.warn("Dropping subscriber that did not accept an event within {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            } else {
+                resizeSenders(-1);
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds since the stream was created plus one, so the values {@link #IDLE} and {@link #STALLED} of
+     * {@link Subscriber#sending} are never a start time.
+     */
+    private long clock() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    private void resizeSenders(int delta) {
+        lock.lock();
+        try {
+            int size = senders.getCorePoolSize() + delta;
+            // the maximum may never be below the core size
+            if (delta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        // null if the subscriber wants the changes of all tours
+        private final Set<Long> tourIds;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        // set while a sender drains the queue, so events of one subscriber are sent by one thread at a time
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // clock() when the current write started, IDLE while none is in progress, STALLED once the subscriber
+        // was dropped for not accepting a write in time
+        private final AtomicLong sending = new AtomicLong(IDLE);
+
+        private Subscriber(SseEmitter emitter, Set<Long> tourIds) {
+            this.emitter = emitter;
+            this.tourIds = tourIds;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                resync();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void resync() {
+            queue.clear();
+            queue.offer(SseEmitter.event().name(RESYNC_EVENT).data("resync"));
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            boolean stalled = false;
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    long started = clock();
+                    sending.set(started);
+                    emitter.send(event);
+                    if (!sending.compareAndSet(started, IDLE)) {
+                        break;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client is gone, the emitter callbacks remove the subscriber
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                stalled = sending.getAndSet(IDLE) == STALLED;
+                if (stalled) {
+                    resizeSenders(-1);
+                }
+                draining.set(false);
+            }
+            if (stalled) {
+                // the write returned after all, the client has to resync when it reconnects
+                emitter.complete();
+                return;
+            }
+            // an event may have been queued after the last poll but before draining was reset
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.tourplanner.backend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tourplanner.backend.repositories.TourExportRow;
+import com.tourplanner.backend.repositories.TourRepository;
+import io.micrometer.core.annotation.Timed;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Exports all tours and their logs. Rows are read through a single database cursor over the join of
+ * tours and logs and written to the output as they arrive, so nothing but the current row is held in memory.
+ */
+@Service
+@Timed("tourplanner.service")
+public class TourExportService {
+    private static final Logger logger = LogManager.getLogger(TourExportService.class);
+
+    static final String CSV_HEADER = "tour_id,name,description,from,to,transport_type,distance,est_time,"
+            + "log_id,date_time,comment,difficulty,total_distance,total_time,rating";
+
+    private final TourRepository tourRepository;
+    private final ObjectMapper objectMapper;
+
+    public TourExportService(TourRepository tourRepository, ObjectMapper objectMapper) {
+        this.tourRepository = tourRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes one JSON object per line and tour, with the logs of the tour nested in a {@code tourLogs} array.
+     */
+    @Transactional(readOnly = true)
+    public void writeNdjson(OutputStream out) throws IOException {
+        logger.info("Exporting all tours as NDJSON");
+        long tours = 0;
+        try (Stream<TourExportRow> rows = tourRepository.streamExportRows();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            Long currentTourId = null;
+            Iterator<TourExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TourExportRow row = iterator.next();
+                if (!Objects.equals(row.tourId(), currentTourId)) {
+                    if (currentTourId != null) {
+                        generator.writeEndArray();
+                        generator.writeEndObject();
+                    }
+                    currentTourId = row.tourId();
+                    tours++;
+                    writeTour(generator, row);
+                    generator.writeArrayFieldStart("tourLogs");
+                }
+                if (row.logId() != null) {
+                    writeTourLog(generator, row);
+                }
+            }
+            if (currentTourId != null) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        logger.info("Exported {} tours as NDJSON", tours);
+    }
+
+    /**
+     * Writes one line per log with the columns of its tour. Tours without logs get a single line with empty log columns.
+     */
+    @Transactional(readOnly = true)
+    public void writeCsv(OutputStream out) throws IOException {
+        logger.info("Exporting all tours as CSV");
+        long lines = 0;
+        // not closed, closing the response stream is up to the caller
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<TourExportRow> rows = tourRepository.streamExportRows()) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            Iterator<TourExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeCsvLine(writer, iterator.next());
+                lines++;
+            }
+        }
+        writer.flush();
+        logger.info("Exported {} lines as CSV", lines);
+    }
+
+    private void writeTour(JsonGenerator generator, TourExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.tourId());
+        generator.writeStringField("name", row.name());
+        generator.writeStringField("description", row.description());
+        generator.writeStringField("from", row.startLocation());
+        generator.writeStringField("to", row.endLocation());
+        generator.writeStringField("transportType", row.transportType());
+        generator.writeNumberField("distance", row.distance());
+        generator.writeNumberField("estTime", row.estimatedTime());
+    }
+
+    private void writeTourLog(JsonGenerator generator, TourExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.logId());
+        generator.writeStringField("dateTime", Objects.toString(row.dateTime(), null));
+        generator.writeStringField("comment", row.comment());
+        generator.writeStringField("difficulty", row.difficulty());
+        generator.writeNumberField("totalDistance", row.totalDistance());
+        generator.writeNumberField("totalTime", row.totalTime());
+        generator.writeNumberField("rating", row.rating());
+        generator.writeEndObject();
+    }
+
+    private void writeCsvLine(Writer writer, TourExportRow row) throws IOException {
+        Object[] values = {
+                row.tourId(), row.name(), row.description(), row.startLocation(), row.endLocation(),
+                row.transportType(), row.distance(), row.estimatedTime(), row.logId(), row.dateTime(),
+                row.comment(), row.difficulty(), row.totalDistance(), row.totalTime(), row.rating()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,321 @@
+package com.tourplanner.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+import com.tourplanner.backend.dtos.ImportErrorDto;
+import com.tourplanner.backend.dtos.ImportReportDto;
+import com.tourplanner.backend.dtos.TourLogImportDto;
+import com.tourplanner.backend.repositories.TourRepository;
+import com.tourplanner.backend.validation.TourValidator;
+import com.tourplanner.backend.validation.Violation;
+import io.micrometer.core.annotation.Timed;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Imports tour logs from NDJSON or CSV bodies of any size. Records are parsed one at a time,
+ * validated with the rules of {@link TourService} and stored in batches, one transaction per batch,
+ * so memory use does not depend on the size of the upload. A record longer than
+ * {@value #MAX_RECORD_LENGTH} characters fails the import with 400 Bad Request, the batches before
+ * it stay stored.
+ */
+@Service
+@Timed("tourplanner.service")
+public class TourLogImportService {
+    private static final Logger logger = LogManager.getLogger(TourLogImportService.class);
+
+    static final int BATCH_SIZE = TourService.FLUSH_INTERVAL;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final int TOUR_CACHE_SIZE = 1024;
+    private static final List<String> CSV_COLUMNS =
+            List.of("tourId", "dateTime", "comment", "difficulty", "totalDistance", "totalTime", "rating");
+
+    private final TourService tourService;
+    private final TourRepository tourRepository;
+    private final TourValidator tourValidator;
+    private final ObjectMapper objectMapper;
+
+    public TourLogImportService(TourService tourService, TourRepository tourRepository, TourValidator tourValidator,
+                                ObjectMapper objectMapper) {
+        this.tourService = tourService;
+        this.tourRepository = tourRepository;
+        this.tourValidator = tourValidator;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * One JSON object per line with the fields of {@link TourLogImportDto}. Blank lines are skipped.
+     */
+    public ImportReportDto importNdjson(InputStream body) throws IOException {
+        logger.info("Importing Tour logs from NDJSON");
+        Import tourLogImport = new Import();
+        RecordReader reader = new RecordReader(new InputStreamReader(body, StandardCharsets.UTF_8), false);
+        String line;
+        while ((line = reader.next()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                tourLogImport.add(reader.line(), objectMapper.readValue(line, TourLogImportDto.class));
+            } catch (JsonProcessingException e) {
+                tourLogImport.fail(reader.line(), "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return tourLogImport.finish();
+    }
+
+    /**
+     * A header line naming the columns tourId, dateTime, comment, difficulty, totalDistance, totalTime
+     * and rating in any order, followed by one record per line. Fields may be quoted with double quotes
+     * as in RFC 4180, a quoted field may contain line breaks. Errors are reported with the first line of
+     * their record.
+     */
+    public ImportReportDto importCsv(InputStream body) throws IOException {
+        logger.info("Importing Tour logs from CSV");
+        RecordReader reader = new RecordReader(new InputStreamReader(body, StandardCharsets.UTF_8), true);
+        String header = reader.next();
+        if (header == null) {
+            return new Import().finish();
+        }
+        List<String> columns = parseCsvLine(header).stream().map(String::trim).toList();
+        for (String column : CSV_COLUMNS) {
+            if (!columns.contains(column)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header is missing column " + column);
+            }
+        }
+
+        Import tourLogImport = new Import();
+        String line;
+        while ((line = reader.next()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = parseCsvLine(line);
+            if (fields.size() != columns.size()) {
+                tourLogImport.fail(reader.line(), "Expected " + columns.size() + " fields but got " + fields.size());
+                continue;
+            }
+            try {
+                tourLogImport.add(reader.line(), toImportDto(columns, fields));
+            } catch (NumberFormatException e) {
+                tourLogImport.fail(reader.line(), "Invalid number: " + e.getMessage());
+            }
+        }
+        return tourLogImport.finish();
+    }
+
+    private TourLogImportDto toImportDto(List<String> columns, List<String> fields) {
+        TourLogImportDto dto = new TourLogImportDto();
+        for (int i = 0; i < columns.size(); i++) {
+            String value = fields.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (columns.get(i)) {
+                case "tourId" -> dto.setTourId(Long.valueOf(value.trim()));
+                case "dateTime" -> dto.setDateTime(value.trim());
+                case "comment" -> dto.setComment(value);
+                case "difficulty" -> dto.setDifficulty(value.trim());
+                case "totalDistance" -> dto.setTotalDistance(Float.valueOf(value.trim()));
+                case "totalTime" -> dto.setTotalTime(Float.valueOf(value.trim()));
+                case "rating" -> dto.setRating(Integer.valueOf(value.trim()));
+                default -> {
+                    // unknown columns are ignored
+                }
+            }
+        }
+        return dto;
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * State of one running import: the records waiting for the next batch, the counters and the
+     * reported errors.
+     */
+    private class Import {
+        private final Map<Long, List<PendingTourLog>> pending = new LinkedHashMap<>();
+        private int pendingCount;
+        private long imported;
+        private long failed;
+        private final List<ImportErrorDto> errors = new ArrayList<>();
+        private final Map<Long, Boolean> existingTours = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > TOUR_CACHE_SIZE;
+            }
+        };
+
+        void add(long line, TourLogImportDto record) {
+            if (record.getTourId() == null || record.getDateTime() == null || record.getComment() == null
+                    || record.getDifficulty() == null || record.getTotalDistance() == null
+                    || record.getTotalTime() == null || record.getRating() == null) {
+                fail(line, "Missing field, all of " + CSV_COLUMNS + " are required");
+                return;
+            }
+            CreateTourLogDto dto = new CreateTourLogDto(record.getDateTime(), record.getComment(),
+                    record.getDifficulty(), record.getTotalDistance(), record.getTotalTime(), record.getRating());
+            List<Violation> violations = tourValidator.validate(dto);
+            if (!violations.isEmpty()) {
+                StringBuilder message = new StringBuilder("Invalid tour log");
+                for (Violation violation : violations) {
+                    message.append(", ").append(violation.field()).append(' ').append(violation.message());
+                }
+                fail(line, message.toString());
+                return;
+            }
+            if (!existingTours.computeIfAbsent(record.getTourId(), tourRepository::existsById)) {
+                fail(line, "Tour " + record.getTourId() + " not found");
+                return;
+            }
+            pending.computeIfAbsent(record.getTourId(), tourId -> new ArrayList<>()).add(new PendingTourLog(line, dto));
+            if (++pendingCount >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportErrorDto(line, message));
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<Long, List<CreateTourLogDto>> dtosByTour = new LinkedHashMap<>();
+            pending.forEach((tourId, tourLogs) ->
+                    dtosByTour.put(tourId, tourLogs.stream().map(PendingTourLog::dto).toList()));
+            Set<Long> missing = tourService.createTourLogs(dtosByTour);
+            for (Map.Entry<Long, List<PendingTourLog>> entry : pending.entrySet()) {
+                List<PendingTourLog> tourLogs = entry.getValue();
+                if (!missing.contains(entry.getKey())) {
+                    imported += tourLogs.size();
+                    continue;
+                }
+                // the tour was deleted while importing, the other tours of the batch are stored
+                existingTours.remove(entry.getKey());
+                for (PendingTourLog tourLog : tourLogs) {
+                    fail(tourLog.line(), "Tour " + entry.getKey() + " not found");
+                }
+            }
+            pending.clear();
+            pendingCount = 0;
+        }
+
+        ImportReportDto finish() {
+            flush();
+            logger.info("Imported {} Tour logs, {} failed", imported, failed);
+            return new ImportReportDto(imported, failed, errors);
+        }
+    }
+
+    private record PendingTourLog(long line, CreateTourLogDto dto) {
+    }
+
+    /**
+     * Reads a body one record at a time: a line, or with quoting a line whose quoted fields may span
+     * several lines. Unlike a line reader it keeps at most {@value #MAX_RECORD_LENGTH} characters of a
+     * record, so an unterminated quote or a body without line breaks cannot take up the heap.
+     */
+    static final class RecordReader {
+        private final Reader reader;
+        private final boolean quoting;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder record = new StringBuilder();
+        private int position;
+        private int limit;
+        private long nextLine = 1;
+        private long line;
+
+        RecordReader(Reader reader, boolean quoting) {
+            this.reader = reader;
+            this.quoting = quoting;
+        }
+
+        /**
+         * Returns the next record without its line break, or null at the end of the body.
+         */
+        String next() throws IOException {
+            record.setLength(0);
+            line = nextLine;
+            boolean quoted = false;
+            boolean read = false;
+            while (position < limit || fill()) {
+                char c = buffer[position++];
+                read = true;
+                if (c == '\n') {
+                    nextLine++;
+                    if (!quoted) {
+                        int end = record.length();
+                        if (end > 0 && record.charAt(end - 1) == '\r') {
+                            record.setLength(end - 1);
+                        }
+                        return record.toString();
+                    }
+                } else if (c == '"' && quoting) {
+                    quoted = !quoted;
+                }
+                if (record.length() == MAX_RECORD_LENGTH) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Record at line " + line + " is longer than " + MAX_RECORD_LENGTH + " characters");
+                }
+                record.append(c);
+            }
+            return read ? record.toString() : null;
+        }
+
+        /**
+         * Returns the line the last record started on, counting from 1.
+         */
+        long line() {
+            return line;
+        }
+
+        private boolean fill() throws IOException {
+            limit = reader.read(buffer);
+            position = 0;
+            return limit > 0;
+        }
+    }
+}
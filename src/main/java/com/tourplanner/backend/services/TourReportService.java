@@ -0,0 +1,241 @@
+package com.tourplanner.backend.services;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfWriter;
+import com.tourplanner.backend.repositories.TourExportRow;
+import com.tourplanner.backend.repositories.TourRepository;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Renders the report of all tours. The elements of every tour's section are built in parallel and
+ * only if {@link ReportFragmentCache} does not hold up-to-date ones yet. They are then added in tour
+ * id order to one continuous document, laid out like a report rendered in a single pass.
+ */
+@Service
+@Timed("tourplanner.service")
+public class TourReportService {
+    private static final Logger logger = LogManager.getLogger(TourReportService.class);
+
+    // tours are read, rendered and merged in chunks of this size to keep memory use bounded
+    static final int CHUNK_SIZE = 256;
+
+    private final TourRepository tourRepository;
+    private final EntityManager entityManager;
+    private final ReportFragmentCache fragmentCache;
+    private final ForkJoinPool renderPool;
+    private final Timer renderTimer;
+    private final DistributionSummary reportSize;
+
+    public TourReportService(TourRepository tourRepository, EntityManager entityManager,
+                             ReportFragmentCache fragmentCache, MeterRegistry meterRegistry,
+                             @Value("${tourplanner.report.parallelism:0}") int parallelism) {
+        this.tourRepository = tourRepository;
+        this.entityManager = entityManager;
+        this.fragmentCache = fragmentCache;
+        this.renderPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.renderTimer = Timer.builder("tourplanner.report.render")
+                .description("Time to render and write the report of all tours")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.reportSize = DistributionSummary.builder("tourplanner.report.size")
+                .description("Size of the written report of all tours")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the report of all tours and their logs to the given stream while reading them.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void writeAllToursPdf(OutputStream out) {
+        logger.info("Generating report of all tours");
+        // taken before the first query, so fragments of data changed after the snapshot are never cached
+        long stamp = fragmentCache.stamp();
+        Timer.Sample sample = Timer.start();
+        CountingOutputStream counted = new CountingOutputStream(out);
+        Document document = new Document();
+        try (Stream<Long> tourIds = tourRepository.streamAllIds()) {
+            PdfWriter.getInstance(document, counted);
+            document.open();
+            document.add(new Paragraph("All Tours", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18)));
+            document.add(new Paragraph(" ")); // blank line
+
+            List<Long> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<Long> iterator = tourIds.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    for (List<Element> fragment : renderChunk(chunk, stamp)) {
+                        for (Element element : fragment) {
+                            document.add(element);
+                        }
+                    }
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+
+            document.close();
+        } catch (DocumentException e) {
+            throw new RuntimeException("Failed to generate tour PDF", e);
+        }
+        sample.stop(renderTimer);
+        reportSize.record(counted.count);
+        logger.info("Generated report of all tours, {} bytes", counted.count);
+    }
+
+    private List<List<Element>> renderChunk(List<Long> tourIds, long stamp) {
+        Map<Long, List<Element>> fragments = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long tourId : tourIds) {
+            List<Element> fragment = fragmentCache.get(tourId);
+            if (fragment == null) {
+                missing.add(tourId);
+            } else {
+                fragments.put(tourId, fragment);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            // the rows of a tour are handed to its render task and released once it ran, at most a few tours
+            // ahead of the rendering are read
+            Deque<Rendering> rendering = new ArrayDeque<>();
+            try (Stream<TourExportRow> rows = tourRepository.streamExportRows(missing)) {
+                List<TourExportRow> rowsOfTour = new ArrayList<>();
+                Iterator<TourExportRow> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    TourExportRow row = iterator.next();
+                    if (!rowsOfTour.isEmpty() && !rowsOfTour.get(0).tourId().equals(row.tourId())) {
+                        render(rowsOfTour, rendering, fragments, stamp);
+                        rowsOfTour = new ArrayList<>();
+                    }
+                    rowsOfTour.add(row);
+                }
+                if (!rowsOfTour.isEmpty()) {
+                    render(rowsOfTour, rendering, fragments, stamp);
+                }
+            }
+            while (!rendering.isEmpty()) {
+                collect(rendering.poll(), fragments, stamp);
+            }
+        }
+
+        List<List<Element>> ordered = new ArrayList<>(tourIds.size());
+        for (Long tourId : tourIds) {
+            // tours deleted after the ids were read are skipped
+            List<Element> fragment = fragments.get(tourId);
+            if (fragment != null) {
+                ordered.add(fragment);
+            }
+        }
+        return ordered;
+    }
+
+    private void render(List<TourExportRow> rowsOfTour, Deque<Rendering> rendering,
+                        Map<Long, List<Element>> fragments, long stamp) {
+        rendering.add(new Rendering(rowsOfTour.get(0).tourId(),
+                CompletableFuture.supplyAsync(() -> renderFragment(rowsOfTour), renderPool)));
+        while (rendering.size() > 2 * renderPool.getParallelism()) {
+            collect(rendering.poll(), fragments, stamp);
+        }
+    }
+
+    private void collect(Rendering rendering, Map<Long, List<Element>> fragments, long stamp) {
+        List<Element> fragment = resultOf(rendering.fragment());
+        fragmentCache.put(rendering.tourId(), fragment, stamp);
+        fragments.put(rendering.tourId(), fragment);
+    }
+
+    private List<Element> resultOf(CompletableFuture<List<Element>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to render tour PDF", e.getCause());
+        }
+    }
+
+    /**
+     * Builds the section of a tour from its rows, one per log or a single one without log columns. The
+     * elements are only read when added to a document, so the same ones can be added to any number of reports.
+     */
+    List<Element> renderFragment(List<TourExportRow> rows) {
+        TourExportRow tour = rows.get(0);
+        List<Element> elements = new ArrayList<>(10 + rows.size() * 7);
+        elements.add(new Paragraph("Name: " + tour.name()));
+        elements.add(new Paragraph("Description: " + tour.description()));
+        elements.add(new Paragraph("From: " + tour.startLocation()));
+        elements.add(new Paragraph("To: " + tour.endLocation()));
+        elements.add(new Paragraph("Transport: " + tour.transportType()));
+        elements.add(new Paragraph("Distance: " + tour.distance() + " km"));
+        elements.add(new Paragraph("Estimated Time: " + tour.estimatedTime() + " h"));
+        elements.add(new Paragraph("----------------------------------------"));
+        for (TourExportRow log : rows) {
+            if (log.logId() == null) {
+                continue;
+            }
+            elements.add(new Paragraph("Comment: " + log.comment()));
+            elements.add(new Paragraph("Date/Time: " + log.dateTime()));
+            elements.add(new Paragraph("Difficulty: " + log.difficulty()));
+            elements.add(new Paragraph("Total Distance: " + log.totalDistance()));
+            elements.add(new Paragraph("Total Time: " + log.totalTime()));
+            elements.add(new Paragraph("Rating: " + log.rating()));
+            elements.add(new Paragraph("----------------------------------------"));
+        }
+        elements.add(new Paragraph("----------------------------------------"));
+        elements.add(new Paragraph("----------------------------------------"));
+        return Collections.unmodifiableList(elements);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private record Rendering(Long tourId, CompletableFuture<List<Element>> fragment) {
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
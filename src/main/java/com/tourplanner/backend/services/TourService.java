@@ -1,51 +1,222 @@
 package com.tourplanner.backend.services;
 
-import com.lowagie.text.Document;
-import com.lowagie.text.FontFactory;
-import com.lowagie.text.Paragraph;
-import com.lowagie.text.pdf.PdfWriter;
 import com.tourplanner.backend.dtos.*;
 import com.tourplanner.backend.entities.TourEntity;
 import com.tourplanner.backend.entities.TourLogEntity;
+import com.tourplanner.backend.entities.TourStatsEntity;
+import com.tourplanner.backend.events.ChangeType;
+import com.tourplanner.backend.events.TourChangedEvent;
+import com.tourplanner.backend.repositories.TourLogPageQuery;
 import com.tourplanner.backend.repositories.TourLogRepository;
+import com.tourplanner.backend.repositories.TourLogRow;
+import com.tourplanner.backend.repositories.TourPageQuery;
 import com.tourplanner.backend.repositories.TourRepository;
+import com.tourplanner.backend.repositories.TourRow;
+import com.tourplanner.backend.repositories.TourSortField;
+import com.tourplanner.backend.validation.InvalidDtoException;
+import com.tourplanner.backend.validation.TourValidator;
+import com.tourplanner.backend.validation.Violation;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
+@Timed("tourplanner.service")
 public class TourService {
     private static final Logger logger = LogManager.getLogger(TourService.class);
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    // batch imports are flushed and detached after this many rows to keep the persistence context small
+    static final int FLUSH_INTERVAL = 500;
+
+    static final int MAX_BULK_DELETE = 1000;
+
     private final TourRepository tourRepository;
     private final TourLogRepository tourLogRepository;
-
-    public TourService(TourRepository tourRepository, TourLogRepository tourLogRepository) {
+    private final TourStatsService tourStatsService;
+    private final CatalogVersionService catalogVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TourCache tourCache;
+    private final TourValidator tourValidator;
+
+    public TourService(TourRepository tourRepository, TourLogRepository tourLogRepository,
+                       TourStatsService tourStatsService, CatalogVersionService catalogVersionService,
+                       ApplicationEventPublisher eventPublisher, EntityManager entityManager, TourCache tourCache,
+                       TourValidator tourValidator) {
         this.tourRepository = tourRepository;
         this.tourLogRepository = tourLogRepository;
+        this.tourStatsService = tourStatsService;
+        this.catalogVersionService = catalogVersionService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.tourCache = tourCache;
+        this.tourValidator = tourValidator;
     }
 
-    public List<TourDto> getTours() {
+    public TourPageDto getTours(TourQueryDto query) {
         logger.info("Getting Tours");
-        List<TourEntity> tours = tourRepository.findAll();
-        return toDtos(tours);
+        TourPageQuery pageQuery = toPageQuery(query);
+        TourPageDto cached = tourCache.getPage(pageQuery);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = tourCache.stamp();
+        // one extra row tells whether there is a next page
+        List<TourRow> tours = tourRepository.findPage(pageQuery);
+        int pageSize = pageQuery.limit() - 1;
+        boolean hasNext = tours.size() > pageSize;
+        List<TourRow> page = hasNext ? tours.subList(0, pageSize) : tours;
+        TourRow last = hasNext ? page.get(page.size() - 1) : null;
+
+        Map<Long, TourDto> cachedTours = tourCache.getTours(page.stream().map(TourRow::id).toList());
+        List<TourRow> uncached = page.stream().filter(tour -> !cachedTours.containsKey(tour.id())).toList();
+        List<TourRow> needingStats = uncached;
+        if (last != null && pageQuery.sort() == TourSortField.AVG_RATING && cachedTours.containsKey(last.id())) {
+            // the cursor needs the exact average, not the rounded one of the dto
+            needingStats = new ArrayList<>(uncached);
+            needingStats.add(last);
+        }
+        Map<Long, TourStatsEntity> stats = statsOf(needingStats);
+        List<TourDto> loaded = toDtos(uncached, stats);
+        tourCache.putTours(loaded, stamp);
+
+        Map<Long, TourDto> dtos = new HashMap<>(cachedTours);
+        for (TourDto dto : loaded) {
+            dtos.put(dto.getId(), dto);
+        }
+        String nextCursor = last == null ? null : toCursor(pageQuery, last, stats.get(last.id()));
+        TourPageDto result = new TourPageDto(page.stream().map(tour -> dtos.get(tour.id())).toList(), nextCursor);
+        tourCache.putPage(pageQuery, result, stamp);
+        return result;
+    }
+
+    private TourPageQuery toPageQuery(TourQueryDto query) {
+        TourSortField sort = TourSortField.ID;
+        if (query.getSort() != null) {
+            sort = TourSortField.fromParameterName(query.getSort()).orElseThrow(() ->
+                    new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort " + query.getSort()));
+        }
+        String direction = query.getDirection() == null ? "asc" : query.getDirection();
+        if (!"asc".equals(direction) && !"desc".equals(direction)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Direction must be asc or desc");
+        }
+        int limit = DEFAULT_PAGE_SIZE;
+        if (query.getLimit() != null) {
+            if (query.getLimit() < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive");
+            }
+            limit = Math.min(query.getLimit(), MAX_PAGE_SIZE);
+        }
+
+        Long afterId = null;
+        Object afterValue = null;
+        if (query.getCursor() != null) {
+            String[] cursor = PageCursor.decode(query.getCursor(), 4);
+            if (!sort.getParameterName().equals(cursor[0]) || !direction.equals(cursor[1])) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+            try {
+                afterId = Long.valueOf(cursor[2]);
+                afterValue = sort.parseValue(cursor[3]);
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+        Double minRating = query.getMinRating() == null ? null : query.getMinRating().doubleValue();
+        return new TourPageQuery(sort, "desc".equals(direction), query.getTransportType(), query.getMinDistance(),
+                query.getMaxDistance(), minRating, afterId, afterValue, limit + 1);
+    }
+
+    private String toCursor(TourPageQuery query, TourRow last, TourStatsEntity stats) {
+        String value = switch (query.sort()) {
+            case ID -> "";
+            case NAME -> last.name();
+            case DISTANCE -> Float.toString(last.distance());
+            case ESTIMATED_TIME -> Float.toString(last.estimatedTime());
+            case AVG_RATING -> Double.toString(stats == null ? 0 : stats.getAvgRating());
+        };
+        return PageCursor.encode(query.sort().getParameterName(), query.descending() ? "desc" : "asc",
+                String.valueOf(last.id()), value);
     }
 
+    @Transactional
     public void createTour(CreateTourDto dto) {
         logger.info("Creating a new tour");
-        if (!isCreateTourDtoValid(dto)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        requireValid(tourValidator.validate(dto));
+        TourEntity tourEntity = toEntity(dto);
+        tourRepository.save(tourEntity);
+        tourStatsService.initialize(tourEntity.getId());
+        long catalogVersion = catalogVersionService.increment();
+        eventPublisher.publishEvent(TourChangedEvent.tour(tourEntity.getId(), ChangeType.CREATED, catalogVersion));
+        logger.info("Tour created");
+    }
+
+    /**
+     * Validates all tours before the first one is stored and persists them in JDBC batches within one transaction.
+     */
+    @Transactional
+    public void createTours(List<CreateTourDto> dtos) {
+        logger.info("Creating {} tours", dtos.size());
+        List<Violation> violations = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            for (Violation violation : tourValidator.validate(dtos.get(i))) {
+                violations.add(violation.atIndex(i));
+            }
         }
-        TourEntity tourEntity = new TourEntity(
+        requireValid(violations);
+        List<TourEntity> batch = new ArrayList<>(FLUSH_INTERVAL);
+        List<Long> createdIds = new ArrayList<>(dtos.size());
+        for (CreateTourDto dto : dtos) {
+            batch.add(toEntity(dto));
+            if (batch.size() == FLUSH_INTERVAL) {
+                flushTours(batch, createdIds);
+            }
+        }
+        flushTours(batch, createdIds);
+        // incremented last, so the version row is only locked for the end of the transaction
+        long catalogVersion = catalogVersionService.increment();
+        for (Long tourId : createdIds) {
+            eventPublisher.publishEvent(TourChangedEvent.tour(tourId, ChangeType.CREATED, catalogVersion));
+        }
+        logger.info("{} tours created", dtos.size());
+    }
+
+    private void flushTours(List<TourEntity> batch, List<Long> createdIds) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        tourRepository.saveAll(batch);
+        List<Long> tourIds = batch.stream().map(TourEntity::getId).toList();
+        tourStatsService.initialize(tourIds);
+        tourRepository.flush();
+        entityManager.clear();
+        createdIds.addAll(tourIds);
+        batch.clear();
+    }
+
+    private TourEntity toEntity(CreateTourDto dto) {
+        return new TourEntity(
                 dto.getName(),
                 dto.getDescription(),
                 dto.getFrom(),
@@ -54,44 +225,60 @@ public class TourService {
                 dto.getDistance(),
                 dto.getEstTime()
         );
-        tourRepository.save(tourEntity);
-        logger.info("Tour created");
     }
 
-    private boolean isCreateTourDtoValid(CreateTourDto dto) {
-        String transportType = dto.getTransportType();
-        if (dto.getName().isEmpty() || dto.getDescription().isEmpty() || dto.getFrom().isEmpty() || dto.getTo().isEmpty() || transportType.isEmpty()) {
-            return false;
-        }
-        if (!"driving-car".equals(transportType) && !"driving-hgv".equals(transportType) && !"cycling-regular".equals(transportType) && !"cycling-mountain".equals(transportType) && !"cycling-electric".equals(transportType) && !"foot-walking".equals(transportType) && !"foot-hiking".equals(transportType)) {
-            return false;
-        }
-        if (dto.getDistance() < 0) {
-            return false;
-        }
-        if (dto.getEstTime() < 0) {
-            return false;
-        }
-        String cityCountryValidationRegex = "^[A-Z][a-zA-ZäöüÄÖÜß\\s'-]+,\\s[A-Z][a-zA-ZäöüÄÖÜß\\s'-]+$";
-        if (!dto.getFrom().matches(cityCountryValidationRegex) || !dto.getTo().matches(cityCountryValidationRegex)) {
-            return false;
-        }
-        return true;
+    @Transactional
+    public void deleteTour(long id) {
+        logger.info("Deleting Tour with id {}", id);
+        if (deleteToursWithLogs(List.of(id)) == 0) {
+            logger.info("Tour with id {} does not exist", id);
+            return;
+        }
+        long catalogVersion = catalogVersionService.increment();
+        eventPublisher.publishEvent(TourChangedEvent.tour(id, ChangeType.DELETED, catalogVersion));
+        logger.info("Deleted Tour with id {}", id);
     }
 
-    public void deleteTour(long id) {
-        logger.info("Deleting Tour with id " + id);
-        tourRepository.deleteById(id);
-        logger.info("Deleted Tour with id " + id);
+    /**
+     * Deletes the given tours and all their logs in one transaction. Ids of tours that do not exist are ignored.
+     */
+    @Transactional
+    public void deleteTours(Collection<Long> ids) {
+        if (ids.size() > MAX_BULK_DELETE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BULK_DELETE + " tours can be deleted at once");
+        }
+        logger.info("Deleting {} tours", ids.size());
+        List<Long> existing = ids.isEmpty() ? List.of() : tourRepository.findExistingIds(ids);
+        if (existing.isEmpty()) {
+            return;
+        }
+        deleteToursWithLogs(existing);
+        long catalogVersion = catalogVersionService.increment();
+        for (Long tourId : existing) {
+            eventPublisher.publishEvent(TourChangedEvent.tour(tourId, ChangeType.DELETED, catalogVersion));
+        }
+        logger.info("Deleted {} tours", existing.size());
     }
 
+    /**
+     * Deletes with one statement per table instead of loading and removing every log.
+     *
+     * @return the number of deleted tours
+     */
+    private int deleteToursWithLogs(Collection<Long> tourIds) {
+        // logs first, their foreign key does not cascade
+        tourLogRepository.deleteByTourIds(tourIds);
+        tourStatsService.remove(tourIds);
+        return tourRepository.deleteByIds(tourIds);
+    }
+
+    @Transactional
     public TourDto updateTour(long id, UpdateTourDto dto) {
-        logger.info("Update a Tour with id " + id);
-        if (!isUpdateTourDtoValid(dto)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
-        }
+        logger.info("Update a Tour with id {}", id);
+        requireValid(tourValidator.validate(dto));
         TourEntity tourEntity = tourRepository.findById(id).orElseThrow(() -> {
-            logger.error("Tour with id " + id + " was not found in the database");
+            logger.error("Tour with id {} was not found in the database", id);
             return new ResponseStatusException(HttpStatus.NOT_FOUND, "Tour not found");
         });
         tourEntity.setDistance(dto.getDistance());
@@ -101,215 +288,387 @@ public class TourService {
         tourEntity.setTransportType(dto.getTransportType());
         tourEntity.setDescription(dto.getDescription());
         tourEntity.setEstimatedTime(dto.getEstTime());
-        tourRepository.save(tourEntity);
-        logger.info("Updated Tour with id " + id);
+        // flushed, so the returned dto carries the incremented version
+        tourRepository.saveAndFlush(tourEntity);
+        long catalogVersion = catalogVersionService.increment();
+        eventPublisher.publishEvent(TourChangedEvent.tour(id, ChangeType.UPDATED, catalogVersion));
+        logger.info("Updated Tour with id {}", id);
         return toDto(tourEntity);
 
     }
 
-    private boolean isUpdateTourDtoValid(UpdateTourDto dto) {
-        String transportType = dto.getTransportType();
-        if (dto.getName().isEmpty() || dto.getDescription().isEmpty() || dto.getFrom().isEmpty() || dto.getTo().isEmpty() || transportType.isEmpty()) {
-            return false;
-        }
-        if (!"driving-car".equals(transportType) && !"driving-hgv".equals(transportType) && !"cycling-regular".equals(transportType) && !"cycling-mountain".equals(transportType) && !"cycling-electric".equals(transportType) && !"foot-walking".equals(transportType) && !"foot-hiking".equals(transportType)) {
-            return false;
-        }
-        if (dto.getDistance() < 0) {
-            return false;
-        }
-        if (dto.getEstTime() < 0) {
-            return false;
-        }
-        String cityCountryValidationRegex = "^[A-Z][a-zA-ZäöüÄÖÜß\\s'-]+,\\s[A-Z][a-zA-ZäöüÄÖÜß\\s'-]+$";
-        if (!dto.getFrom().matches(cityCountryValidationRegex) || !dto.getTo().matches(cityCountryValidationRegex)) {
-            return false;
-        }
-        return true;
+    /**
+     * Changes only the supplied fields of a tour with a single UPDATE that also increments its version. With an
+     * expected version, a tour that has changed since is reported as a conflict instead of being overwritten.
+     */
+    @Transactional
+    public PatchResultDto patchTour(long id, PatchTourDto dto, Long expectedVersion) {
+        logger.info("Patching Tour with id {}", id);
+        requireValid(tourValidator.validate(dto));
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfPresent(changes, "name", dto.getName());
+        putIfPresent(changes, "description", dto.getDescription());
+        putIfPresent(changes, "startLocation", dto.getFrom());
+        putIfPresent(changes, "endLocation", dto.getTo());
+        putIfPresent(changes, "transportType", dto.getTransportType());
+        putIfPresent(changes, "distance", dto.getDistance());
+        putIfPresent(changes, "estimatedTime", dto.getEstTime());
+        requireChanges(changes);
+
+        int updated = tourRepository.patch(id, changes, expectedVersion);
+        if (updated == 0) {
+            throw notUpdated("Tour", expectedVersion == null ? Optional.empty() : tourRepository.findVersion(id));
+        }
+        long catalogVersion = catalogVersionService.increment();
+        eventPublisher.publishEvent(TourChangedEvent.tour(id, ChangeType.UPDATED, catalogVersion));
+        logger.info("Patched Tour with id {}", id);
+        return new PatchResultDto(updated, expectedVersion == null ? null : expectedVersion + 1);
+    }
+
+    List<TourDto> toDtos(List<TourRow> rows, Map<Long, TourStatsEntity> stats) {
+        return rows.stream().map(row -> toDto(row, stats.get(row.id()))).toList();
     }
 
-    private List<TourDto> toDtos(List<TourEntity> entities) {
-        return entities.stream().map(entity -> toDto(entity)).toList();
+    private Map<Long, TourStatsEntity> statsOf(List<TourRow> rows) {
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> tourIds = rows.stream().map(TourRow::id).toList();
+        return tourStatsService.findByTourIds(tourIds);
     }
 
-    private List<TourLogDto> toTourLogDtos(List<TourLogEntity> entities) {
-        return entities.stream().map(entity -> toTourLogDto(entity)).toList();
+    private List<TourLogDto> toTourLogDtos(List<TourLogRow> rows) {
+        return rows.stream().map(row -> toTourLogDto(row)).toList();
     }
 
     private TourLogDto toTourLogDto(TourLogEntity entity) {
+        return toTourLogDto(TourLogRow.of(entity));
+    }
+
+    private TourLogDto toTourLogDto(TourLogRow row) {
         return new TourLogDto(
-                entity.getId(),
-                entity.getDateTime().toString(),
-                entity.getComment(),
-                entity.getDifficulty(),
-                entity.getTotalDistance(),
-                entity.getTotalTime(),
-                entity.getRating()
+                row.id(),
+                row.dateTime().toString(),
+                row.comment(),
+                row.difficulty(),
+                row.totalDistance(),
+                row.totalTime(),
+                row.rating(),
+                row.version()
         );
     }
 
     private TourDto toDto(TourEntity entity) {
-        List<TourLogEntity> tourLogEntities = tourLogRepository.findByTourId(entity.getId());
-        float sumOfRatings = 0;
-        for (TourLogEntity tourLogEntity : tourLogEntities) {
-            sumOfRatings += tourLogEntity.getRating();
-        }
+        return toDto(TourRow.of(entity), tourStatsService.findByTourId(entity.getId()).orElse(null));
+    }
+
+    TourDto toDto(TourRow row, TourStatsEntity stats) {
+        long logCount = 0;
         float avgRating = 0;
-        if (!tourLogEntities.isEmpty()) {
-            avgRating = sumOfRatings / tourLogEntities.size();
+        if (stats != null) {
+            logCount = stats.getLogCount();
+            avgRating = (float) stats.getAvgRating();
         }
+        return new TourDto(
+                row.id(),
+                row.name(),
+                row.description(),
+                row.startLocation(),
+                row.endLocation(),
+                row.transportType(),
+                row.distance(),
+                row.estimatedTime(),
+                avgRating,
+                popularityOf(logCount),
+                row.version()
+        );
+    }
+
+    private String popularityOf(long logCount) {
         String popularity = "undefined";
-        if (tourLogEntities.size() > 1) {
+        if (logCount > 1) {
             popularity = "low";
         }
-        if (tourLogEntities.size() >= 5) {
+        if (logCount >= 5) {
             popularity = "medium";
         }
-        if (tourLogEntities.size() >= 10) {
+        if (logCount >= 10) {
             popularity = "popular";
         }
-        return new TourDto(
-                entity.getId(),
-                entity.getName(),
-                entity.getDescription(),
-                entity.getStartLocation(),
-                entity.getEndLocation(),
-                entity.getTransportType(),
-                entity.getDistance(),
-                entity.getEstimatedTime(),
-                avgRating,
-                popularity
+        return popularity;
+    }
 
-        );
+    // TourLogsLogic
 
+    LocalDateTime parseDateTimeOrThrow(String input) {
+        LocalDate localDate = tourValidator.parseDate(input);
+        if (localDate == null) {
+            logger.error("Invalid date format. Expected: yyyy-MM-dd received {}", input);
+            throw new IllegalArgumentException("Invalid date format. Expected: yyyy-MM-dd");
+        }
+        return localDate.atStartOfDay();
+    }
 
+    private void requireValid(List<Violation> violations) {
+        if (!violations.isEmpty()) {
+            throw new InvalidDtoException(violations);
+        }
     }
 
-    // TourLogsLogic
+    private void putIfPresent(Map<String, Object> changes, String attribute, Object value) {
+        if (value != null) {
+            changes.put(attribute, value);
+        }
+    }
 
-    private LocalDateTime parseDateTimeOrThrow(String input) {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            LocalDate localDate = LocalDate.parse(input, formatter);
-            return localDate.atStartOfDay();
-        } catch (DateTimeParseException e) {
-            logger.error("Invalid date format. Expected: yyyy-MM-dd received " + input);
-            throw new IllegalArgumentException("Invalid date format. Expected: yyyy-MM-dd");
+    private void requireChanges(Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No fields to change");
         }
     }
 
+    /**
+     * Tells a missing row from one that is no longer at the expected version, which is only looked up after
+     * the update matched nothing.
+     */
+    private ResponseStatusException notUpdated(String type, Optional<Long> currentVersion) {
+        if (currentVersion.isEmpty()) {
+            logger.error("{} to patch was not found in the database", type);
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, type + " not found");
+        }
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                type + " was changed in the meantime, its current version is " + currentVersion.get());
+    }
+
+    @Transactional
     public TourLogDto createTourLog(Long tourId, CreateTourLogDto dto) {
-        logger.info("Creating Tour log for Tour with id " + tourId);
-        if(!isCreateTourLogDtoValid(dto)){
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
-        }
+        logger.info("Creating Tour log for Tour with id {}", tourId);
+        requireValid(tourValidator.validate(dto));
         TourEntity tourEntity = tourRepository.findById(tourId).orElseThrow(() -> {
-            logger.error("Tour with tourId " + tourId + " was not found in the database");
+            logger.error("Tour with tourId {} was not found in the database", tourId);
             return new ResponseStatusException(HttpStatus.NOT_FOUND, "Tour not found");
         });
-        LocalDateTime dateTime = parseDateTimeOrThrow(dto.getDateTime());
-        TourLogEntity tourLogEntity = new TourLogEntity(
-                dateTime,
-                dto.getComment(),
-                dto.getDifficulty(),
-                dto.getTotalDistance(),
-                dto.getTotalTime(),
-                dto.getRating(),
-                tourEntity
-        );
+        TourLogEntity tourLogEntity = toTourLogEntity(dto, tourEntity);
         TourLogEntity created = tourLogRepository.save(tourLogEntity);
-        logger.info("Tour log for Tour with id " + tourId + " created");
+        tourStatsService.logAdded(created);
+        long catalogVersion = catalogVersionService.increment();
+        eventPublisher.publishEvent(TourChangedEvent.tourLog(tourId, created.getId(), ChangeType.CREATED, catalogVersion));
+        logger.info("Tour log for Tour with id {} created", tourId);
         return toTourLogDto(created);
     }
 
-    private boolean isCreateTourLogDtoValid(CreateTourLogDto dto) {
-        String difficulty = dto.getDifficulty();
-        if (dto.getComment().isEmpty()) {
-            return false;
-        }
-        //difficulty should be one of the three provided difficulties
-        if (!"Easy".equals(difficulty) && !"Medium".equals(difficulty) && !"Hard".equals(difficulty)) {
-            return false;
-        }
-        //rating should be between 1 and 5
-        if(dto.getRating()<1 || dto.getRating()>5){
-            return false;
-        }
-        //no negative total time
-        if(dto.getTotalTime()<0){
-            return false;
+    /**
+     * Validates all logs before the first one is stored and persists them in JDBC batches within one transaction.
+     * The statistics of the tour are updated once for the whole batch.
+     */
+    @Transactional
+    public void createTourLogs(Long tourId, List<CreateTourLogDto> dtos) {
+        logger.info("Creating {} Tour logs for Tour with id {}", dtos.size(), tourId);
+        List<Violation> violations = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            for (Violation violation : tourValidator.validate(dtos.get(i))) {
+                violations.add(violation.atIndex(i));
+            }
         }
-        //no negative total distance
-        if(dto.getTotalDistance()<0){
-            return false;
+        requireValid(violations);
+        TourEntity tourEntity = tourRepository.findById(tourId).orElseThrow(() -> {
+            logger.error("Tour with tourId {} was not found in the database", tourId);
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, "Tour not found");
+        });
+
+        List<TourLogEntity> batch = new ArrayList<>(FLUSH_INTERVAL);
+        TourLogSums sums = addTourLogs(tourEntity, dtos, batch);
+        flushTourLogs(batch);
+        if (!dtos.isEmpty()) {
+            addToStats(sums);
+            long catalogVersion = catalogVersionService.increment();
+            eventPublisher.publishEvent(TourChangedEvent.tour(tourId, ChangeType.UPDATED, catalogVersion));
         }
-        return true;
+        logger.info("{} Tour logs for Tour with id {} created", dtos.size(), tourId);
     }
 
-    private boolean isUpdateTourLogDtoValid(UpdateTourLogDto dto) {
-        String difficulty = dto.getDifficulty();
-        if (dto.getComment().isEmpty()) {
-            return false;
+    /**
+     * Stores the logs of several tours like {@link #createTourLogs(Long, List)} does for one, all in one
+     * transaction and with one catalogue version. Logs of tours that do not exist are skipped.
+     *
+     * @return the ids of the tours that do not exist
+     */
+    @Transactional
+    public Set<Long> createTourLogs(Map<Long, List<CreateTourLogDto>> dtosByTour) {
+        logger.info("Creating Tour logs for {} tours", dtosByTour.size());
+        List<Violation> violations = new ArrayList<>();
+        for (List<CreateTourLogDto> dtos : dtosByTour.values()) {
+            for (CreateTourLogDto dto : dtos) {
+                violations.addAll(tourValidator.validate(dto));
+            }
         }
-        //difficulty should be one of the three provided difficulties
-        if (!"Easy".equals(difficulty) && !"Medium".equals(difficulty) && !"Hard".equals(difficulty)) {
-            return false;
+        requireValid(violations);
+        Set<Long> missing = new HashSet<>(dtosByTour.keySet());
+        if (dtosByTour.isEmpty()) {
+            return missing;
+        }
+        List<Long> existing = tourRepository.findExistingIds(dtosByTour.keySet());
+        existing.forEach(missing::remove);
+
+        List<TourLogEntity> batch = new ArrayList<>(FLUSH_INTERVAL);
+        List<TourLogSums> sums = new ArrayList<>(existing.size());
+        for (Long tourId : existing) {
+            sums.add(addTourLogs(tourRepository.getReferenceById(tourId), dtosByTour.get(tourId), batch));
+        }
+        flushTourLogs(batch);
+        if (!existing.isEmpty()) {
+            sums.forEach(this::addToStats);
+            long catalogVersion = catalogVersionService.increment();
+            for (Long tourId : existing) {
+                eventPublisher.publishEvent(TourChangedEvent.tour(tourId, ChangeType.UPDATED, catalogVersion));
+            }
         }
-        //rating should be between 1 and 5
-        if(dto.getRating()<1 || dto.getRating()>5){
-            return false;
+        logger.info("Tour logs for {} tours created, {} tours not found", existing.size(), missing.size());
+        return missing;
+    }
+
+    /**
+     * Adds the logs of a tour to the batch, flushing it whenever it is full. The sums are added to the
+     * statistics once all logs are flushed, a tour without statistics gets them computed from its logs.
+     */
+    private TourLogSums addTourLogs(TourEntity tourEntity, List<CreateTourLogDto> dtos, List<TourLogEntity> batch) {
+        long ratingSum = 0;
+        double totalDistance = 0;
+        double totalTime = 0;
+        for (CreateTourLogDto dto : dtos) {
+            batch.add(toTourLogEntity(dto, tourEntity));
+            ratingSum += dto.getRating();
+            totalDistance += dto.getTotalDistance();
+            totalTime += dto.getTotalTime();
+            if (batch.size() == FLUSH_INTERVAL) {
+                flushTourLogs(batch);
+            }
         }
-        //no negative total time
-        if(dto.getTotalTime()<0){
-            return false;
+        return new TourLogSums(tourEntity.getId(), dtos.size(), ratingSum, totalDistance, totalTime);
+    }
+
+    private void addToStats(TourLogSums sums) {
+        if (sums.count() > 0) {
+            tourStatsService.logsAdded(sums.tourId(), sums.count(), sums.ratingSum(), sums.totalDistance(),
+                    sums.totalTime());
         }
-        //no negative total distance
-        if(dto.getTotalDistance()<0){
-            return false;
+    }
+
+    private void flushTourLogs(List<TourLogEntity> batch) {
+        if (batch.isEmpty()) {
+            return;
         }
-        return true;
+        tourLogRepository.saveAll(batch);
+        tourLogRepository.flush();
+        // the tour stays usable as a reference after it is detached
+        entityManager.clear();
+        batch.clear();
     }
 
+    private TourLogEntity toTourLogEntity(CreateTourLogDto dto, TourEntity tourEntity) {
+        LocalDateTime dateTime = parseDateTimeOrThrow(dto.getDateTime());
+        return new TourLogEntity(
+                dateTime,
+                dto.getComment(),
+                dto.getDifficulty(),
+                dto.getTotalDistance(),
+                dto.getTotalTime(),
+                dto.getRating(),
+                tourEntity
+        );
+    }
+
+    @Transactional
     public void deleteTourLog(Long tourId, Long tourLogId) {
-        logger.info("Deleting Tour log with id " + tourLogId + " for tour with id " + tourId);
+        logger.info("Deleting Tour log with id {} for tour with id {}", tourLogId, tourId);
         TourLogEntity tourLogEntity = tourLogRepository.findById(tourLogId).orElseThrow(() -> {
-            logger.error("Tour Log with id " + tourLogId + "was not found in Database");
+            logger.error("Tour Log with id {} was not found in Database", tourLogId);
             return new ResponseStatusException(HttpStatus.NOT_FOUND, "Tour Log not found");
         });
         if (tourLogEntity.getTour().getId().longValue() != tourId.longValue()) {
-            logger.error("Tour Id " + tourLogEntity.getTour().getId() + " of Tour Log doesn't match given Tour Id " + tourId);
+            logger.error("Tour Id {} of Tour Log doesn't match given Tour Id {}", tourLogEntity.getTour().getId(), tourId);
             throw new ResponseStatusException(
                     HttpStatus.NOT_FOUND,
                     "Tour Id of Tour Log doesn't match given Tour Id"
             );
         }
         tourLogRepository.deleteById(tourLogId);
-        logger.info("Tour log with id " + tourLogId + " for tour with id " + tourId + " deleted");
+        tourStatsService.logRemoved(tourLogEntity);
+        long catalogVersion = catalogVersionService.increment();
+        eventPublisher.publishEvent(TourChangedEvent.tourLog(tourId, tourLogId, ChangeType.DELETED, catalogVersion));
+        logger.info("Tour log with id {} for tour with id {} deleted", tourLogId, tourId);
     }
 
-    public List<TourLogDto> getTourLogs(Long tourId) {
-        logger.info("Getting Tour logs for tour with id " + tourId);
-        List<TourLogEntity> tourLogEntities = tourLogRepository.findByTourId(tourId);
-        return toTourLogDtos(tourLogEntities);
+    public TourLogPageDto getTourLogs(Long tourId, TourLogQueryDto query) {
+        logger.info("Getting Tour logs for tour with id {}", tourId);
+        TourLogPageQuery pageQuery = toLogPageQuery(tourId, query);
+        // one extra row tells whether there is a next page
+        List<TourLogRow> tourLogs = tourLogRepository.findPage(pageQuery);
+        int pageSize = pageQuery.limit() - 1;
+        boolean hasNext = tourLogs.size() > pageSize;
+        List<TourLogRow> page = hasNext ? tourLogs.subList(0, pageSize) : tourLogs;
+
+        String nextCursor = null;
+        if (hasNext) {
+            TourLogRow last = page.get(page.size() - 1);
+            nextCursor = PageCursor.encode(String.valueOf(last.id()), last.dateTime().toString());
+        }
+        return new TourLogPageDto(toTourLogDtos(page), nextCursor);
     }
 
-    public TourLogDto updateTourLog(Long tourId, Long tourLogId, UpdateTourLogDto dto) {
-        logger.info("Updating Tour log with Id " + tourLogId + " for Tour with Tour with Id " + tourId);
-        if(!isUpdateTourLogDtoValid(dto)){
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+    private TourLogPageQuery toLogPageQuery(Long tourId, TourLogQueryDto query) {
+        int limit = DEFAULT_PAGE_SIZE;
+        if (query.getLimit() != null) {
+            if (query.getLimit() < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive");
+            }
+            limit = Math.min(query.getLimit(), MAX_PAGE_SIZE);
+        }
+        LocalDateTime from = query.getFrom() == null ? null : parseDateParameter(query.getFrom());
+        // the to date is inclusive, so the range ends at the start of the following day
+        LocalDateTime to = query.getTo() == null ? null : parseDateParameter(query.getTo()).plusDays(1);
+
+        Long afterId = null;
+        LocalDateTime afterDateTime = null;
+        if (query.getCursor() != null) {
+            String[] cursor = PageCursor.decode(query.getCursor(), 2);
+            try {
+                afterId = Long.valueOf(cursor[0]);
+                afterDateTime = LocalDateTime.parse(cursor[1]);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+        return new TourLogPageQuery(tourId, from, to, query.getDifficulty(), afterDateTime, afterId, limit + 1);
+    }
+
+    private LocalDateTime parseDateParameter(String input) {
+        try {
+            return parseDateTimeOrThrow(input);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
+    }
+
+    @Transactional
+    public TourLogDto updateTourLog(Long tourId, Long tourLogId, UpdateTourLogDto dto) {
+        logger.info("Updating Tour log with Id {} for Tour with Tour with Id {}", tourLogId, tourId);
+        requireValid(tourValidator.validate(dto));
         TourLogEntity tourLogEntity = tourLogRepository.findById(tourLogId).orElseThrow(() -> {
-            logger.error("Tour Log with id " + tourLogId + "was not found in Database");
+            logger.error("Tour Log with id {} was not found in Database", tourLogId);
             return new ResponseStatusException(HttpStatus.NOT_FOUND, "Tour Log not found");
         });
         if (tourLogEntity.getTour().getId().longValue() != tourId.longValue()) {
-            logger.error("Tour Id " + tourLogEntity.getTour().getId() + " of Tour Log doesn't match given Tour Id " + tourId);
+            logger.error("Tour Id {} of Tour Log doesn't match given Tour Id {}", tourLogEntity.getTour().getId(), tourId);
             throw new ResponseStatusException(
                     HttpStatus.NOT_FOUND,
                     "Tour Id of Tour Log doesn't match given Tour Id"
             );
         }
         LocalDateTime dateTime = parseDateTimeOrThrow(dto.getDateTime());
+        int ratingDelta = dto.getRating() - tourLogEntity.getRating();
+        float distanceDelta = dto.getTotalDistance() - tourLogEntity.getTotalDistance();
+        float timeDelta = dto.getTotalTime() - tourLogEntity.getTotalTime();
         tourLogEntity.setComment(dto.getComment());
         tourLogEntity.setDateTime(dateTime);
         tourLogEntity.setDifficulty(dto.getDifficulty());
@@ -317,49 +676,50 @@ public class TourService {
         tourLogEntity.setTotalTime(dto.getTotalTime());
         tourLogEntity.setRating(dto.getRating());
         tourLogRepository.save(tourLogEntity);
-        logger.info("Tour log with Id " + tourLogId + " for Tour with Tour with Id " + tourId + " updated");
+        tourStatsService.logUpdated(tourId, ratingDelta, distanceDelta, timeDelta);
+        long catalogVersion = catalogVersionService.increment();
+        eventPublisher.publishEvent(TourChangedEvent.tourLogUpdated(tourId, tourLogId, ratingDelta != 0, catalogVersion));
+        logger.info("Tour log with Id {} for Tour with Tour with Id {} updated", tourLogId, tourId);
         return toTourLogDto(tourLogEntity);
     }
 
-    public byte[] generateAllToursPdf() {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            List<TourEntity> tours = tourRepository.findAll();
-            Document document = new Document();
-            PdfWriter.getInstance(document, out);
-            document.open();
-
-            document.add(new Paragraph("All Tours", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18)));
-            document.add(new Paragraph(" ")); // blank line
-
-            for (TourEntity tour : tours) {
-                List<TourLogEntity> tourLogEntities = tourLogRepository.findByTourId(tour.getId());
-                document.add(new Paragraph("Name: " + tour.getName()));
-                document.add(new Paragraph("Description: " + tour.getDescription()));
-                document.add(new Paragraph("From: " + tour.getStartLocation()));
-                document.add(new Paragraph("To: " + tour.getEndLocation()));
-                document.add(new Paragraph("Transport: " + tour.getTransportType()));
-                document.add(new Paragraph("Distance: " + tour.getDistance() + " km"));
-                document.add(new Paragraph("Estimated Time: " + tour.getEstimatedTime() + " h"));
-                document.add(new Paragraph("----------------------------------------"));
-                for (TourLogEntity tourLogEntity : tourLogEntities) {
-                    document.add(new Paragraph("Comment: " + tourLogEntity.getComment()));
-                    document.add(new Paragraph("Date/Time: " + tourLogEntity.getDateTime()));
-                    document.add(new Paragraph("Difficulty: " + tourLogEntity.getDifficulty()));
-                    document.add(new Paragraph("Total Distance: " + tourLogEntity.getTotalDistance()));
-                    document.add(new Paragraph("Total Time: " + tourLogEntity.getTotalTime()));
-                    document.add(new Paragraph("Rating: " + tourLogEntity.getRating()));
-                    document.add(new Paragraph("----------------------------------------"));
-
-                }
-                document.add(new Paragraph("----------------------------------------"));
-                document.add(new Paragraph("----------------------------------------"));
-
-            }
+    /**
+     * Changes only the supplied fields of a tour log with a single UPDATE that also checks that the log belongs
+     * to the tour and increments its version. The statistics of the tour are moved from the previous values of
+     * the log to the new ones in the database beforehand, while the log still has them.
+     */
+    @Transactional
+    public PatchResultDto patchTourLog(Long tourId, Long tourLogId, PatchTourLogDto dto, Long expectedVersion) {
+        logger.info("Patching Tour log with Id {} for Tour with Id {}", tourLogId, tourId);
+        requireValid(tourValidator.validate(dto));
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfPresent(changes, "dateTime", dto.getDateTime() == null ? null : parseDateTimeOrThrow(dto.getDateTime()));
+        putIfPresent(changes, "comment", dto.getComment());
+        putIfPresent(changes, "difficulty", dto.getDifficulty());
+        putIfPresent(changes, "totalDistance", dto.getTotalDistance());
+        putIfPresent(changes, "totalTime", dto.getTotalTime());
+        putIfPresent(changes, "rating", dto.getRating());
+        requireChanges(changes);
+
+        boolean statsChanged = dto.getDateTime() != null || dto.getTotalDistance() != null
+                || dto.getTotalTime() != null || dto.getRating() != null;
+        boolean deltaApplied = statsChanged && tourStatsService.logPatching(tourId, tourLogId, dto.getRating(),
+                dto.getTotalDistance(), dto.getTotalTime(), expectedVersion);
+        int updated = tourLogRepository.patch(tourId, tourLogId, changes, expectedVersion);
+        if (updated == 0) {
+            throw notUpdated("Tour Log",
+                    expectedVersion == null ? Optional.empty() : tourLogRepository.findVersion(tourId, tourLogId));
+        }
+        if (statsChanged) {
+            tourStatsService.logPatched(tourId, deltaApplied);
+        }
+        long catalogVersion = catalogVersionService.increment();
+        eventPublisher.publishEvent(TourChangedEvent.tourLogUpdated(tourId, tourLogId, dto.getRating() != null,
+                catalogVersion));
+        logger.info("Tour log with Id {} for Tour with Id {} patched", tourLogId, tourId);
+        return new PatchResultDto(updated, expectedVersion == null ? null : expectedVersion + 1);
+    }
 
-            document.close();
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate tour PDF", e);
-        }
+    private record TourLogSums(Long tourId, long count, long ratingSum, double totalDistance, double totalTime) {
     }
 }
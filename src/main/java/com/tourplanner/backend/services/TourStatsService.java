@@ -0,0 +1,230 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.TourStatsReportDto;
+import com.tourplanner.backend.entities.TourLogEntity;
+import com.tourplanner.backend.entities.TourStatsEntity;
+import com.tourplanner.backend.repositories.TourLogAggregate;
+import com.tourplanner.backend.repositories.TourLogRepository;
+import com.tourplanner.backend.repositories.TourRepository;
+import com.tourplanner.backend.repositories.TourStatsRepository;
+import io.micrometer.core.annotation.Timed;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Maintains the per-tour statistics in {@code tour_stats}. Log mutations are applied as deltas
+ * and must be called from within the transaction that changes the log.
+ */
+@Service
+@Timed("tourplanner.service")
+public class TourStatsService {
+    private static final Logger logger = LogManager.getLogger(TourStatsService.class);
+
+    // sums of float columns are compared with a relative tolerance
+    private static final double SUM_TOLERANCE = 0.0001;
+
+    private final TourStatsRepository tourStatsRepository;
+    private final TourLogRepository tourLogRepository;
+    private final TourRepository tourRepository;
+
+    public TourStatsService(TourStatsRepository tourStatsRepository, TourLogRepository tourLogRepository,
+                            TourRepository tourRepository) {
+        this.tourStatsRepository = tourStatsRepository;
+        this.tourLogRepository = tourLogRepository;
+        this.tourRepository = tourRepository;
+    }
+
+    /**
+     * Returns the statistics of a tour, computed from its logs if the tour has no statistics row yet.
+     */
+    public Optional<TourStatsEntity> findByTourId(Long tourId) {
+        return tourStatsRepository.findById(tourId)
+                .or(() -> Optional.of(toStats(tourId, tourLogRepository.aggregateByTourId(tourId).orElse(null))));
+    }
+
+    /**
+     * Returns the statistics of the given tours by tour id. Tours without a statistics row get theirs computed
+     * from their logs with one more query, without storing them.
+     */
+    public Map<Long, TourStatsEntity> findByTourIds(Collection<Long> tourIds) {
+        Map<Long, TourStatsEntity> stats = new HashMap<>();
+        for (TourStatsEntity entity : tourStatsRepository.findAllById(tourIds)) {
+            stats.put(entity.getTourId(), entity);
+        }
+        List<Long> missing = tourIds.stream().filter(tourId -> !stats.containsKey(tourId)).distinct().toList();
+        if (!missing.isEmpty()) {
+            logger.warn("No statistics for tours with ids {}, computing them from their logs", missing);
+            for (TourLogAggregate aggregate : tourLogRepository.aggregateByTourIds(missing)) {
+                stats.put(aggregate.tourId(), toStats(aggregate.tourId(), aggregate));
+            }
+            for (Long tourId : missing) {
+                stats.computeIfAbsent(tourId, TourStatsEntity::new);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Creates the statistics rows of tours that existed before the statistics did.
+     */
+    @Transactional
+    public void backfill() {
+        int created = tourStatsRepository.insertMissing();
+        if (created > 0) {
+            logger.info("Created the statistics of {} tours from their logs", created);
+        }
+    }
+
+    public void initialize(Long tourId) {
+        tourStatsRepository.save(new TourStatsEntity(tourId));
+    }
+
+    public void initialize(Collection<Long> tourIds) {
+        tourStatsRepository.saveAll(tourIds.stream().map(TourStatsEntity::new).toList());
+    }
+
+    public void remove(Collection<Long> tourIds) {
+        tourStatsRepository.deleteByTourIds(tourIds);
+    }
+
+    public void logAdded(TourLogEntity log) {
+        applyDelta(log.getTour().getId(), 1, log.getRating(), log.getTotalDistance(), log.getTotalTime());
+    }
+
+    public void logRemoved(TourLogEntity log) {
+        applyDelta(log.getTour().getId(), -1, -log.getRating(), -log.getTotalDistance(), -log.getTotalTime());
+    }
+
+    public void logsAdded(Long tourId, long logCount, long ratingSum, double totalDistance, double totalTime) {
+        applyDelta(tourId, logCount, ratingSum, totalDistance, totalTime);
+    }
+
+    public void logUpdated(Long tourId, int ratingDelta, float distanceDelta, float timeDelta) {
+        applyDelta(tourId, 0, ratingDelta, distanceDelta, timeDelta);
+    }
+
+    /**
+     * Moves the statistics of a tour from the current values of a log to the given ones, before the log is
+     * patched without being loaded. Null values are not changed by the patch.
+     *
+     * @return whether the statistics were changed, false if the log does not match or the tour has no
+     * statistics row yet
+     */
+    public boolean logPatching(Long tourId, Long tourLogId, Integer rating, Float totalDistance, Float totalTime,
+                               Long expectedVersion) {
+        return tourStatsRepository.applyPatchDelta(tourId, tourLogId, rating, totalDistance, totalTime,
+                expectedVersion) > 0;
+    }
+
+    /**
+     * Completes the statistics after a log was patched.
+     *
+     * @param deltaApplied what {@link #logPatching} returned
+     */
+    public void logPatched(Long tourId, boolean deltaApplied) {
+        if (!deltaApplied) {
+            createFromLogs(tourId);
+            return;
+        }
+        tourStatsRepository.refreshDerived(tourId);
+    }
+
+    private void applyDelta(Long tourId, long logCount, long ratingSum, double distance, double time) {
+        if (tourStatsRepository.applyDelta(tourId, logCount, ratingSum, distance, time) == 0) {
+            createFromLogs(tourId);
+            return;
+        }
+        tourStatsRepository.refreshDerived(tourId);
+    }
+
+    // tours created before the statistics existed get their row on first use
+    private void createFromLogs(Long tourId) {
+        logger.info("No statistics for tour with id {}, computing them from its logs", tourId);
+        tourStatsRepository.save(toStats(tourId, tourLogRepository.aggregateByTourId(tourId).orElse(null)));
+    }
+
+    /**
+     * Recomputes the statistics of every tour from its logs and compares them with the stored rows.
+     *
+     * @param repair whether drifted rows should be overwritten with the recomputed values
+     */
+    @Transactional
+    public TourStatsReportDto rebuild(boolean repair) {
+        logger.info("Verifying tour statistics, repair: {}", repair);
+        Map<Long, TourLogAggregate> aggregates = new HashMap<>();
+        for (TourLogAggregate aggregate : tourLogRepository.aggregateAll()) {
+            aggregates.put(aggregate.tourId(), aggregate);
+        }
+        Map<Long, TourStatsEntity> stored = new HashMap<>();
+        for (TourStatsEntity entity : tourStatsRepository.findAll()) {
+            stored.put(entity.getTourId(), entity);
+        }
+
+        List<Long> tourIds = tourRepository.findAllIds();
+        List<Long> drifted = new ArrayList<>();
+        for (Long tourId : tourIds) {
+            TourStatsEntity expected = toStats(tourId, aggregates.get(tourId));
+            TourStatsEntity actual = stored.remove(tourId);
+            if (actual != null && matches(actual, expected)) {
+                continue;
+            }
+            drifted.add(tourId);
+            if (repair && actual == null) {
+                tourStatsRepository.save(expected);
+            } else if (repair) {
+                overwrite(actual, expected);
+            }
+        }
+        // whatever is left belongs to tours that no longer exist
+        for (Long orphanId : stored.keySet()) {
+            drifted.add(orphanId);
+            if (repair) {
+                tourStatsRepository.deleteById(orphanId);
+            }
+        }
+        if (!drifted.isEmpty()) {
+            logger.warn("Statistics of {} tours drifted: {}", drifted.size(), drifted);
+        }
+        return new TourStatsReportDto(tourIds.size(), drifted, repair && !drifted.isEmpty());
+    }
+
+    private TourStatsEntity toStats(Long tourId, TourLogAggregate aggregate) {
+        if (aggregate == null) {
+            return new TourStatsEntity(tourId);
+        }
+        return new TourStatsEntity(
+                tourId,
+                aggregate.logCount(),
+                aggregate.ratingSum() == null ? 0 : aggregate.ratingSum(),
+                aggregate.totalDistance() == null ? 0 : aggregate.totalDistance(),
+                aggregate.totalTime() == null ? 0 : aggregate.totalTime(),
+                aggregate.lastLogDate()
+        );
+    }
+
+    private void overwrite(TourStatsEntity actual, TourStatsEntity expected) {
+        actual.setLogCount(expected.getLogCount());
+        actual.setRatingSum(expected.getRatingSum());
+        actual.setTotalDistance(expected.getTotalDistance());
+        actual.setTotalTime(expected.getTotalTime());
+        actual.setLastLogDate(expected.getLastLogDate());
+        actual.setAvgRating(expected.getAvgRating());
+    }
+
+    private boolean matches(TourStatsEntity actual, TourStatsEntity expected) {
+        return actual.getLogCount() == expected.getLogCount()
+                && actual.getRatingSum() == expected.getRatingSum()
+                && sumsMatch(actual.getTotalDistance(), expected.getTotalDistance())
+                && sumsMatch(actual.getTotalTime(), expected.getTotalTime())
+                && sumsMatch(actual.getAvgRating(), expected.getAvgRating())
+                && Objects.equals(actual.getLastLogDate(), expected.getLastLogDate());
+    }
+
+    private boolean sumsMatch(double actual, double expected) {
+        return Math.abs(actual - expected) <= SUM_TOLERANCE * Math.max(1, Math.abs(expected));
+    }
+}
@@ -0,0 +1,38 @@
+package com.tourplanner.backend.validation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Difficulties of tour logs, under the names used in requests and stored with logs.
+ */
+public enum Difficulty {
+    EASY("Easy"),
+    MEDIUM("Medium"),
+    HARD("Hard");
+
+    private static final Map<String, Difficulty> BY_VALUE = new HashMap<>();
+
+    static {
+        for (Difficulty difficulty : values()) {
+            BY_VALUE.put(difficulty.value, difficulty);
+        }
+    }
+
+    private final String value;
+
+    Difficulty(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the difficulty with the given name, or null if there is none.
+     */
+    public static Difficulty fromValue(String value) {
+        return value == null ? null : BY_VALUE.get(value);
+    }
+}
@@ -0,0 +1,24 @@
+package com.tourplanner.backend.validation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Bad request listing every violation of the request, returned as a problem detail with a
+ * {@code violations} property.
+ */
+public class InvalidDtoException extends ResponseStatusException {
+    private final List<Violation> violations;
+
+    public InvalidDtoException(List<Violation> violations) {
+        super(HttpStatus.BAD_REQUEST, "Invalid request, " + violations.size() + " violation(s)");
+        this.violations = violations;
+        getBody().setProperty("violations", violations);
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+}
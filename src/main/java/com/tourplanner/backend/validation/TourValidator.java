@@ -0,0 +1,237 @@
+package com.tourplanner.backend.validation;
+
+import com.tourplanner.backend.dtos.CreateTourDto;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+import com.tourplanner.backend.dtos.PatchTourDto;
+import com.tourplanner.backend.dtos.PatchTourLogDto;
+import com.tourplanner.backend.dtos.UpdateTourDto;
+import com.tourplanner.backend.dtos.UpdateTourLogDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates incoming tours and tour logs. Every check runs, so all violations of a request are reported
+ * at once. Locations and dates are checked by scanning their characters instead of with regular
+ * expressions, and a valid DTO is checked without allocating anything.
+ */
+@Component
+public class TourValidator {
+    static final String EMPTY = "must not be empty";
+    private static final String NEGATIVE = "must not be negative";
+    private static final String LOCATION = "must be a city and country like \"Vienna, Austria\"";
+    private static final String TRANSPORT_TYPE = "must be one of driving-car, driving-hgv, cycling-regular, "
+            + "cycling-mountain, cycling-electric, foot-walking, foot-hiking";
+    private static final String DATE = "must be a date like 2025-05-25";
+    private static final String DIFFICULTY = "must be one of Easy, Medium, Hard";
+    private static final String RATING = "must be between 1 and 5";
+
+    public List<Violation> validate(CreateTourDto dto) {
+        return validateTour(dto.getName(), dto.getDescription(), dto.getFrom(), dto.getTo(), dto.getTransportType(),
+                dto.getDistance(), dto.getEstTime());
+    }
+
+    public List<Violation> validate(UpdateTourDto dto) {
+        return validateTour(dto.getName(), dto.getDescription(), dto.getFrom(), dto.getTo(), dto.getTransportType(),
+                dto.getDistance(), dto.getEstTime());
+    }
+
+    public List<Violation> validate(CreateTourLogDto dto) {
+        return validateTourLog(dto.getDateTime(), dto.getComment(), dto.getDifficulty(), dto.getTotalDistance(),
+                dto.getTotalTime(), dto.getRating());
+    }
+
+    public List<Violation> validate(UpdateTourLogDto dto) {
+        return validateTourLog(dto.getDateTime(), dto.getComment(), dto.getDifficulty(), dto.getTotalDistance(),
+                dto.getTotalTime(), dto.getRating());
+    }
+
+    /**
+     * Checks only the fields present in the patch.
+     */
+    public List<Violation> validate(PatchTourDto dto) {
+        List<Violation> violations = null;
+        if (dto.getName() != null && isEmpty(dto.getName())) {
+            violations = add(violations, "name", EMPTY);
+        }
+        if (dto.getDescription() != null && isEmpty(dto.getDescription())) {
+            violations = add(violations, "description", EMPTY);
+        }
+        if (dto.getFrom() != null && !isCityAndCountry(dto.getFrom())) {
+            violations = add(violations, "from", LOCATION);
+        }
+        if (dto.getTo() != null && !isCityAndCountry(dto.getTo())) {
+            violations = add(violations, "to", LOCATION);
+        }
+        if (dto.getTransportType() != null && TransportType.fromValue(dto.getTransportType()) == null) {
+            violations = add(violations, "transportType", TRANSPORT_TYPE);
+        }
+        if (dto.getDistance() != null && dto.getDistance() < 0) {
+            violations = add(violations, "distance", NEGATIVE);
+        }
+        if (dto.getEstTime() != null && dto.getEstTime() < 0) {
+            violations = add(violations, "estTime", NEGATIVE);
+        }
+        return violations == null ? List.of() : violations;
+    }
+
+    /**
+     * Checks only the fields present in the patch.
+     */
+    public List<Violation> validate(PatchTourLogDto dto) {
+        List<Violation> violations = null;
+        if (dto.getDateTime() != null && parseDate(dto.getDateTime()) == null) {
+            violations = add(violations, "dateTime", DATE);
+        }
+        if (dto.getComment() != null && isEmpty(dto.getComment())) {
+            violations = add(violations, "comment", EMPTY);
+        }
+        if (dto.getDifficulty() != null && Difficulty.fromValue(dto.getDifficulty()) == null) {
+            violations = add(violations, "difficulty", DIFFICULTY);
+        }
+        if (dto.getTotalDistance() != null && dto.getTotalDistance() < 0) {
+            violations = add(violations, "totalDistance", NEGATIVE);
+        }
+        if (dto.getTotalTime() != null && dto.getTotalTime() < 0) {
+            violations = add(violations, "totalTime", NEGATIVE);
+        }
+        if (dto.getRating() != null && (dto.getRating() < 1 || dto.getRating() > 5)) {
+            violations = add(violations, "rating", RATING);
+        }
+        return violations == null ? List.of() : violations;
+    }
+
+    private List<Violation> validateTour(String name, String description, String from, String to,
+                                         String transportType, float distance, float estTime) {
+        List<Violation> violations = null;
+        if (isEmpty(name)) {
+            violations = add(violations, "name", EMPTY);
+        }
+        if (isEmpty(description)) {
+            violations = add(violations, "description", EMPTY);
+        }
+        if (!isCityAndCountry(from)) {
+            violations = add(violations, "from", LOCATION);
+        }
+        if (!isCityAndCountry(to)) {
+            violations = add(violations, "to", LOCATION);
+        }
+        if (TransportType.fromValue(transportType) == null) {
+            violations = add(violations, "transportType", TRANSPORT_TYPE);
+        }
+        if (distance < 0) {
+            violations = add(violations, "distance", NEGATIVE);
+        }
+        if (estTime < 0) {
+            violations = add(violations, "estTime", NEGATIVE);
+        }
+        return violations == null ? List.of() : violations;
+    }
+
+    private List<Violation> validateTourLog(String dateTime, String comment, String difficulty, float totalDistance,
+                                            float totalTime, int rating) {
+        List<Violation> violations = null;
+        if (parseDate(dateTime) == null) {
+            violations = add(violations, "dateTime", DATE);
+        }
+        if (isEmpty(comment)) {
+            violations = add(violations, "comment", EMPTY);
+        }
+        if (Difficulty.fromValue(difficulty) == null) {
+            violations = add(violations, "difficulty", DIFFICULTY);
+        }
+        if (totalDistance < 0) {
+            violations = add(violations, "totalDistance", NEGATIVE);
+        }
+        if (totalTime < 0) {
+            violations = add(violations, "totalTime", NEGATIVE);
+        }
+        if (rating < 1 || rating > 5) {
+            violations = add(violations, "rating", RATING);
+        }
+        return violations == null ? List.of() : violations;
+    }
+
+    /**
+     * Parses a date in the format yyyy-MM-dd, or returns null if the value is not one. Like the lenient
+     * formatter used before, a day past the end of the month is moved to its last day.
+     */
+    public LocalDate parseDate(String value) {
+        if (value == null || value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        return LocalDate.of(year, month, Math.min(day, YearMonth.of(year, month).lengthOfMonth()));
+    }
+
+    private int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Same as matching {@code ^[A-Z][a-zA-ZäöüÄÖÜß\s'-]+,\s[A-Z][a-zA-ZäöüÄÖÜß\s'-]+$}.
+     */
+    static boolean isCityAndCountry(String value) {
+        if (value == null) {
+            return false;
+        }
+        int comma = value.indexOf(',');
+        return comma >= 0
+                && isName(value, 0, comma)
+                && comma + 1 < value.length()
+                && isWhitespace(value.charAt(comma + 1))
+                && isName(value, comma + 2, value.length());
+    }
+
+    private static boolean isName(String value, int from, int to) {
+        if (to - from < 2) {
+            return false;
+        }
+        char first = value.charAt(from);
+        if (first < 'A' || first > 'Z') {
+            return false;
+        }
+        for (int i = from + 1; i < to; i++) {
+            if (!isNameCharacter(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isWhitespace(c) || c == '\'' || c == '-'
+                || c == 'ä' || c == 'ö' || c == 'ü' || c == 'Ä' || c == 'Ö' || c == 'Ü' || c == 'ß';
+    }
+
+    // the characters of \s in Java regular expressions
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static List<Violation> add(List<Violation> violations, String field, String message) {
+        List<Violation> result = violations == null ? new ArrayList<>(4) : violations;
+        result.add(new Violation(field, message));
+        return result;
+    }
+}
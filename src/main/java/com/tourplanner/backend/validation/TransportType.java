@@ -0,0 +1,42 @@
+package com.tourplanner.backend.validation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Transport types of the routing service, under the names used in requests and stored with tours.
+ */
+public enum TransportType {
+    DRIVING_CAR("driving-car"),
+    DRIVING_HGV("driving-hgv"),
+    CYCLING_REGULAR("cycling-regular"),
+    CYCLING_MOUNTAIN("cycling-mountain"),
+    CYCLING_ELECTRIC("cycling-electric"),
+    FOOT_WALKING("foot-walking"),
+    FOOT_HIKING("foot-hiking");
+
+    private static final Map<String, TransportType> BY_VALUE = new HashMap<>();
+
+    static {
+        for (TransportType type : values()) {
+            BY_VALUE.put(type.value, type);
+        }
+    }
+
+    private final String value;
+
+    TransportType(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the type with the given name, or null if there is none.
+     */
+    public static TransportType fromValue(String value) {
+        return value == null ? null : BY_VALUE.get(value);
+    }
+}
@@ -0,0 +1,14 @@
+package com.tourplanner.backend.validation;
+
+/**
+ * A field of a request that is not valid, with the reason.
+ */
+public record Violation(String field, String message) {
+
+    /**
+     * Returns this violation for the element at the given index of a list of DTOs.
+     */
+    public Violation atIndex(int index) {
+        return new Violation("[" + index + "]." + field, message);
+    }
+}
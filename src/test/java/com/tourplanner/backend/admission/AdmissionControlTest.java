@@ -0,0 +1,33 @@
+package com.tourplanner.backend.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdmissionControlTest {
+
+	@Test
+	void requiredThreads_ofTheDefaultsFitIntoTheContainerThreads() {
+		AdmissionControl admissionControl = admissionControl(new MockEnvironment());
+
+		assertThat(admissionControl.requiredThreads()).isLessThan(200);
+	}
+
+	@Test
+	void requiredThreads_countsConfiguredRunningAndQueuedRequests() {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("tourplanner.bulkhead.read.max-concurrent", "100")
+				.withProperty("tourplanner.bulkhead.read.max-queued", "150");
+
+		AdmissionControl admissionControl = admissionControl(environment);
+
+		assertThat(admissionControl.requiredThreads()).isEqualTo(2 + 4 + 100 + 150 + 20 + 30);
+	}
+
+	private AdmissionControl admissionControl(MockEnvironment environment) {
+		return new AdmissionControl(environment, Duration.ofSeconds(1), false, 100, 20, 10000, 200, false);
+	}
+}
@@ -0,0 +1,62 @@
+package com.tourplanner.backend.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BulkheadTest {
+
+	@Test
+	void tryAcquire_rejectsWhenTheQueueIsFull() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("report", 1, 0, Duration.ofSeconds(5));
+
+		assertThat(bulkhead.tryAcquire()).isTrue();
+		assertThat(bulkhead.tryAcquire()).isFalse();
+
+		assertThat(bulkhead.getActive()).isEqualTo(1);
+		assertThat(bulkhead.getAdmitted()).isEqualTo(1);
+		assertThat(bulkhead.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	void tryAcquire_rejectsAfterTheMaximumWait() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("write", 1, 1, Duration.ofMillis(50));
+		bulkhead.tryAcquire();
+
+		assertThat(bulkhead.tryAcquire()).isFalse();
+		assertThat(bulkhead.getQueued()).isZero();
+		assertThat(bulkhead.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	void tryAcquire_admitsAQueuedRequestWhenASlotIsReleased() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("read", 1, 1, Duration.ofSeconds(5));
+		bulkhead.tryAcquire();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			Future<Boolean> queued = executor.submit(() -> {
+				started.countDown();
+				return bulkhead.tryAcquire();
+			});
+			started.await();
+			while (bulkhead.getQueued() == 0 && !queued.isDone()) {
+				Thread.sleep(5);
+			}
+
+			bulkhead.release();
+
+			assertThat(queued.get()).isTrue();
+			assertThat(bulkhead.getAdmitted()).isEqualTo(2);
+			assertThat(bulkhead.getRejected()).isZero();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
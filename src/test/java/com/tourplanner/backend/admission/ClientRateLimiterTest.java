@@ -0,0 +1,36 @@
+package com.tourplanner.backend.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+	private final AtomicLong now = new AtomicLong();
+
+	private final ClientRateLimiter rateLimiter = new ClientRateLimiter(2, 0.5, 100, now::get);
+
+	@Test
+	void tryAcquire_rejectsAClientThatUsedUpItsBucket() {
+		assertThat(rateLimiter.tryAcquire("10.0.0.1")).isZero();
+		assertThat(rateLimiter.tryAcquire("10.0.0.1")).isZero();
+
+		assertThat(rateLimiter.tryAcquire("10.0.0.1")).isEqualTo(2);
+		assertThat(rateLimiter.tryAcquire("10.0.0.2")).isZero();
+		assertThat(rateLimiter.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	void tryAcquire_refillsTheBucketOverTime() {
+		rateLimiter.tryAcquire("10.0.0.1");
+		rateLimiter.tryAcquire("10.0.0.1");
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+		assertThat(rateLimiter.tryAcquire("10.0.0.1")).isZero();
+		assertThat(rateLimiter.tryAcquire("10.0.0.1")).isEqualTo(2);
+	}
+}
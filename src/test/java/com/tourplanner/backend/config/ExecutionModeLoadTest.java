@@ -0,0 +1,144 @@
+package com.tourplanner.backend.config;
+
+import com.tourplanner.backend.BackendApplication;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Measures the latency of {@code GET /tours} while slow clients upload tour log imports, once on the
+ * platform thread pool and once on virtual threads. The application runs on a random port and every request
+ * goes through Tomcat, so an upload occupies its request thread for as long as the client takes to send the
+ * body. The bulkheads are opened up, otherwise they would reject the uploads before they take the threads.
+ * There are more slow clients than platform threads. The percentiles are published as report entries of the
+ * test and logged, since Surefire leaves report entries out of its reports. Run with {@code mvn test -Pload}.
+ */
+@Tag("load")
+class ExecutionModeLoadTest {
+	private static final Logger logger = LogManager.getLogger(ExecutionModeLoadTest.class);
+
+	private static final int SLOW_UPLOADS = 250;
+	private static final int CHEAP_REQUESTS = 500;
+	private static final long UPLOAD_PAUSE_MILLIS = 1000;
+	private static final String CSV_HEADER = "tourId,dateTime,comment,difficulty,totalDistance,totalTime,rating\n";
+	// the tour does not exist, so the import only reads the body and looks it up once
+	private static final String CSV_ROW = "999999,2025-05-01,slow upload,Easy,10,2,5\n";
+
+	@ParameterizedTest(name = "virtual threads {0}")
+	@ValueSource(booleans = {false, true})
+	void getTours_whileSlowClientsUpload(boolean virtualThreads, TestReporter reporter) throws Exception {
+		try (ConfigurableApplicationContext context = start(virtualThreads)) {
+			int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			List<Long> latencies = run(port);
+
+			Map<String, String> result = new LinkedHashMap<>();
+			result.put("mode", virtualThreads ? "virtual threads" : "platform threads");
+			result.put("p50", percentile(latencies, 50) + " ms");
+			result.put("p99", percentile(latencies, 99) + " ms");
+			result.put("max", percentile(latencies, 100) + " ms");
+			reporter.publishEntry(result);
+			logger.info("GET /tours while {} slow clients upload: {}", SLOW_UPLOADS, result);
+		}
+	}
+
+	private ConfigurableApplicationContext start(boolean virtualThreads) {
+		// arguments, since default properties would lose against application.properties
+		return new SpringApplicationBuilder(BackendApplication.class)
+				.profiles("test")
+				.run("--server.port=0",
+						"--spring.threads.virtual.enabled=" + virtualThreads,
+						"--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+						"--tourplanner.bulkhead.read.max-concurrent=" + (SLOW_UPLOADS + CHEAP_REQUESTS),
+						"--tourplanner.bulkhead.write.max-concurrent=" + (SLOW_UPLOADS + CHEAP_REQUESTS));
+	}
+
+	/**
+	 * Returns the latencies of the cheap requests in milliseconds, measured from their submission.
+	 */
+	private List<Long> run(int port) throws Exception {
+		URI tours = URI.create("http://localhost:" + port + "/tours");
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		List<Future<Integer>> uploads = new ArrayList<>();
+		List<Future<Integer>> reads = new ArrayList<>();
+		CountDownLatch uploading = new CountDownLatch(SLOW_UPLOADS);
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+			 HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build()) {
+			for (int i = 0; i < SLOW_UPLOADS; i++) {
+				uploads.add(clients.submit(() -> slowUpload(port, uploading)));
+			}
+			assertThat(uploading.await(30, TimeUnit.SECONDS)).isTrue();
+			for (int i = 0; i < CHEAP_REQUESTS; i++) {
+				long submitted = System.nanoTime();
+				reads.add(clients.submit(() -> {
+					HttpResponse<Void> response = http.send(HttpRequest.newBuilder(tours).build(),
+							HttpResponse.BodyHandlers.discarding());
+					latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted));
+					return response.statusCode();
+				}));
+			}
+			for (Future<Integer> read : reads) {
+				assertThat(read.get()).isEqualTo(200);
+			}
+			for (Future<Integer> upload : uploads) {
+				assertThat(upload.get()).isEqualTo(200);
+			}
+		}
+		return latencies;
+	}
+
+	/**
+	 * Sends the headers and the first part of an import, pauses like a client on a slow link and sends the
+	 * rest. Returns the status code of the response.
+	 */
+	private int slowUpload(int port, CountDownLatch uploading) throws Exception {
+		byte[] first = CSV_HEADER.getBytes(StandardCharsets.UTF_8);
+		byte[] rest = CSV_ROW.getBytes(StandardCharsets.UTF_8);
+		try (Socket socket = new Socket("localhost", port)) {
+			OutputStream out = socket.getOutputStream();
+			out.write(("POST /tours/tour-logs/import HTTP/1.1\r\n"
+					+ "Host: localhost\r\n"
+					+ "Content-Type: text/csv\r\n"
+					+ "Content-Length: " + (first.length + rest.length) + "\r\n"
+					+ "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+			out.write(first);
+			out.flush();
+			uploading.countDown();
+			Thread.sleep(UPLOAD_PAUSE_MILLIS);
+			out.write(rest);
+			out.flush();
+			String statusLine = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+					StandardCharsets.US_ASCII)).readLine();
+			return Integer.parseInt(statusLine.split(" ")[1]);
+		}
+	}
+
+	private long percentile(List<Long> latencies, int percentile) {
+		List<Long> sorted = new ArrayList<>(latencies);
+		Collections.sort(sorted);
+		return sorted.get(Math.max(0, sorted.size() * percentile / 100 - 1));
+	}
+}
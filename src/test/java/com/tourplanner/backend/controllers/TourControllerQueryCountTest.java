@@ -0,0 +1,294 @@
+package com.tourplanner.backend.controllers;
+
+import com.jayway.jsonpath.JsonPath;
+import com.tourplanner.backend.dtos.CreateTourDto;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+import com.tourplanner.backend.entities.ChangeLogEntity;
+import com.tourplanner.backend.entities.TourEntity;
+import com.tourplanner.backend.entities.TourLogEntity;
+import com.tourplanner.backend.metrics.ExpectedQueries;
+import com.tourplanner.backend.metrics.StatementCountFilter;
+import com.tourplanner.backend.metrics.StatementCounter;
+import com.tourplanner.backend.repositories.TourRepository;
+import com.tourplanner.backend.services.TourReportService;
+import com.tourplanner.backend.services.TourService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Pins the number of SQL statements of the endpoints of {@link TourController}, so a change that adds round
+ * trips fails the build. Runs against an in-memory H2 database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TourControllerQueryCountTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TourService tourService;
+
+	@Autowired
+	private TourRepository tourRepository;
+
+	@Autowired
+	private TourReportService tourReportService;
+
+	@Autowired
+	private StatementCounter statementCounter;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Long tourId;
+	private Long tourLogId;
+
+	@BeforeEach
+	void setUp() {
+		tourService.createTour(new CreateTourDto("Tour", "Description", "Vienna, Austria", "Graz, Austria", "driving-car", 100f, 2f));
+		tourId = tourRepository.findAll().stream().mapToLong(TourEntity::getId).max().orElseThrow();
+		tourLogId = tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4)).getId();
+		tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-26", "Comment", "Easy", 40f, 1f, 5));
+		startNewIdBlocks();
+	}
+
+	/**
+	 * Uses up the ids the generators hold in memory, so the first insert of a test always fetches the next
+	 * block from its sequence, however many ids the tests before it took.
+	 */
+	private void startNewIdBlocks() {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		for (Class<?> entity : List.of(TourEntity.class, TourLogEntity.class, ChangeLogEntity.class)) {
+			SequenceStyleGenerator generator = (SequenceStyleGenerator) sessionFactory.getMappingMetamodel()
+					.getEntityDescriptor(entity).getGenerator();
+			PooledOptimizer optimizer = (PooledOptimizer) generator.getOptimizer();
+			while (optimizer.getLastSourceValue() != null
+					&& optimizer.getLastValue().lt(optimizer.getLastSourceValue())) {
+				optimizer.generate(new AccessCallback() {
+					@Override
+					public IntegralDataTypeHolder getNextValue() {
+						throw new IllegalStateException("The block of ids is not used up yet");
+					}
+
+					@Override
+					public String getTenantIdentifier() {
+						return null;
+					}
+				});
+			}
+		}
+	}
+
+	@Test
+	@ExpectedQueries(3)
+	void getTours_readsVersionPageAndStats() throws Exception {
+		mockMvc.perform(get("/tours"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(StatementCountFilter.QUERY_COUNT_HEADER, "3"));
+	}
+
+	@Test
+	void getTours_withManyLoggedTours_readsTheRatingsOfThePageInOneQuery() throws Exception {
+		for (int i = 0; i < 30; i++) {
+			tourService.createTour(new CreateTourDto("Tour " + i, "Description", "Vienna, Austria", "Graz, Austria", "driving-car", 100f, 2f));
+		}
+		for (Long id : tourRepository.findAllIds()) {
+			tourService.createTourLog(id, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 3));
+		}
+
+		mockMvc.perform(get("/tours"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()", greaterThan(30)))
+				.andExpect(header().string(StatementCountFilter.QUERY_COUNT_HEADER, "3"));
+	}
+
+	@Test
+	void getTours_recordsTheSqlTimeNextToTheCount() throws Exception {
+		mockMvc.perform(get("/tours")).andExpect(status().isOk());
+
+		Timer timer = meterRegistry.get("tourplanner.sql.time").tag("uri", "/tours").tag("method", "GET").timer();
+		assertThat(timer.count()).isPositive();
+		assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+	}
+
+	@Test
+	void statementCounter_sumsTheExecutionTimeOfTheStatements() {
+		try (StatementCounter.Scope scope = statementCounter.open()) {
+			assertThat(scope.nanos()).isZero();
+			tourRepository.findAll();
+			assertThat(scope.count()).isEqualTo(1);
+			assertThat(scope.nanos()).isPositive();
+		}
+	}
+
+	@Test
+	@ExpectedQueries(4)
+	void getTours_repeated_servesThePageFromTheCache() throws Exception {
+		mockMvc.perform(get("/tours")).andExpect(status().isOk());
+		mockMvc.perform(get("/tours"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(StatementCountFilter.QUERY_COUNT_HEADER, "1"));
+	}
+
+	@Test
+	void getTours_sortedByRating_continuesAfterTheCursor() throws Exception {
+		MockHttpServletResponse first = mockMvc.perform(get("/tours")
+						.param("sort", "avgRating").param("direction", "desc").param("limit", "1"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		String cursor = first.getHeader(TourController.NEXT_CURSOR_HEADER);
+		Integer firstId = JsonPath.read(first.getContentAsString(), "$[0].id");
+
+		mockMvc.perform(get("/tours")
+						.param("sort", "avgRating").param("direction", "desc").param("limit", "1").param("cursor", cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(not(firstId)))
+				.andExpect(jsonPath("$[0].avgRating").value(lessThanOrEqualTo(
+						JsonPath.<Double>read(first.getContentAsString(), "$[0].avgRating"))));
+	}
+
+	@Test
+	void getTourLogs_continuesAfterTheCursor() throws Exception {
+		MockHttpServletResponse first = mockMvc.perform(get("/tours/{tourId}/tour-logs", tourId).param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].dateTime").value("2025-05-26T00:00"))
+				.andReturn().getResponse();
+
+		mockMvc.perform(get("/tours/{tourId}/tour-logs", tourId)
+						.param("limit", "1").param("cursor", first.getHeader(TourController.NEXT_CURSOR_HEADER)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].dateTime").value("2025-05-25T00:00"));
+	}
+
+	@Test
+	@ExpectedQueries(2)
+	void getTourLogs_readsVersionAndPage() throws Exception {
+		mockMvc.perform(get("/tours/{tourId}/tour-logs", tourId)).andExpect(status().isOk());
+	}
+
+	@Test
+	@ExpectedQueries(2)
+	void getTourLogs_withCurrentETag_readsTheVersionFromTheQueryCache() throws Exception {
+		String etag = mockMvc.perform(get("/tours/{tourId}/tour-logs", tourId))
+				.andReturn().getResponse().getHeader("ETag");
+		mockMvc.perform(get("/tours/{tourId}/tour-logs", tourId).header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(StatementCountFilter.QUERY_COUNT_HEADER, "0"));
+	}
+
+	@Test
+	@ExpectedQueries(2)
+	void getChanges_readsVersionAndChanges() throws Exception {
+		mockMvc.perform(get("/tours/changes").param("since", "0").param("limit", "5000"))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@ExpectedQueries(7)
+	void createTour_insertsTourStatsAndChange() throws Exception {
+		mockMvc.perform(post("/tours").contentType(MediaType.APPLICATION_JSON).content("""
+						{"name": "Tour", "description": "Description", "from": "Vienna, Austria", "to": "Graz, Austria",
+						 "transportType": "driving-car", "distance": 100, "estTime": 2}
+						"""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@ExpectedQueries(6)
+	void updateTour_updatesTheTourAndRecordsTheChange() throws Exception {
+		mockMvc.perform(put("/tours/{id}", tourId).contentType(MediaType.APPLICATION_JSON).content("""
+						{"name": "Renamed", "description": "Description", "from": "Vienna, Austria", "to": "Graz, Austria",
+						 "transportType": "driving-car", "distance": 100, "estTime": 2}
+						"""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@ExpectedQueries(5)
+	void patchTour_updatesInPlaceAndRecordsTheChange() throws Exception {
+		mockMvc.perform(patch("/tours/{id}", tourId).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\": \"Renamed\"}"))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@ExpectedQueries(7)
+	void deleteTour_removesTheTourAndRecordsTheChange() throws Exception {
+		mockMvc.perform(delete("/tours/{id}", tourId)).andExpect(status().isOk());
+	}
+
+	@Test
+	@ExpectedQueries(8)
+	void createTourLog_insertsTheLogAndAddsItToTheStats() throws Exception {
+		mockMvc.perform(post("/tours/{tourId}/tour-logs", tourId).contentType(MediaType.APPLICATION_JSON).content("""
+						{"dateTime": "2025-05-27", "comment": "Comment", "difficulty": "Hard", "totalDistance": 30,
+						 "totalTime": 1, "rating": 3}
+						"""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@ExpectedQueries(7)
+	void patchTourLog_updatesInPlaceAndTheStats() throws Exception {
+		mockMvc.perform(patch("/tours/{tourId}/tour-logs/{tourLogId}", tourId, tourLogId)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"rating\": 2}"))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@ExpectedQueries(7)
+	void deleteTourLog_removesTheLogAndSubtractsItFromTheStats() throws Exception {
+		mockMvc.perform(delete("/tours/{tourId}/tour-logs/{tourLogId}", tourId, tourLogId)).andExpect(status().isOk());
+	}
+
+	@Test
+	void report_rereadsOnlyTheChangedTour() throws Exception {
+		// the report is streamed on another thread, so it is written here to count its statements
+		tourReportService.writeAllToursPdf(OutputStream.nullOutputStream());
+		assertThat(countStatements(() -> tourReportService.writeAllToursPdf(OutputStream.nullOutputStream())))
+				.as("statements of a report with every tour cached")
+				.isEqualTo(1);
+
+		tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-27", "Comment", "Hard", 30f, 1f, 3));
+
+		assertThat(countStatements(() -> tourReportService.writeAllToursPdf(OutputStream.nullOutputStream())))
+				.as("statements of a report with one changed tour, its rows joined with its logs")
+				.isEqualTo(2);
+	}
+
+	private int countStatements(Runnable runnable) {
+		try (StatementCounter.Scope scope = statementCounter.open()) {
+			runnable.run();
+			return scope.count();
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.tourplanner.backend.invalidation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for PostgreSQL that delivers every message to all channels connected to the same subscriber list.
+ */
+class InMemoryInvalidationChannel implements InvalidationChannel {
+	private final List<BlockingQueue<String>> subscribers;
+	private BlockingQueue<String> messages;
+
+	InMemoryInvalidationChannel(List<BlockingQueue<String>> subscribers) {
+		this.subscribers = subscribers;
+	}
+
+	@Override
+	public void connect() {
+		messages = new LinkedBlockingQueue<>();
+		subscribers.add(messages);
+	}
+
+	@Override
+	public List<String> receive(Duration timeout) {
+		List<String> received = new ArrayList<>();
+		try {
+			String message = messages.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+			if (message != null) {
+				received.add(message);
+				messages.drainTo(received);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		return received;
+	}
+
+	@Override
+	public void send(String message) {
+		for (BlockingQueue<String> subscriber : subscribers) {
+			subscriber.offer(message);
+		}
+	}
+
+	@Override
+	public void close() {
+		subscribers.remove(messages);
+	}
+}
@@ -0,0 +1,89 @@
+package com.tourplanner.backend.invalidation;
+
+import com.tourplanner.backend.events.CatalogInvalidatedEvent;
+import com.tourplanner.backend.events.ChangeType;
+import com.tourplanner.backend.events.TourChangedEvent;
+import com.tourplanner.backend.services.CatalogVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InvalidationBusTest {
+
+	@Mock
+	private ApplicationEventPublisher firstPublisher;
+
+	@Mock
+	private ApplicationEventPublisher secondPublisher;
+
+	@Mock
+	private CatalogVersionService catalogVersionService;
+
+	private final List<BlockingQueue<String>> subscribers = new CopyOnWriteArrayList<>();
+
+	private InvalidationBus first;
+
+	private InvalidationBus second;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		first = new InvalidationBus(new InMemoryInvalidationChannel(subscribers), firstPublisher, catalogVersionService, Duration.ofHours(1));
+		second = new InvalidationBus(new InMemoryInvalidationChannel(subscribers), secondPublisher, catalogVersionService, Duration.ofHours(1));
+		first.start();
+		second.start();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (subscribers.size() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.onSpinWait();
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		first.shutdown();
+		second.shutdown();
+	}
+
+	@Test
+	void onTourChanged_isPublishedAsRemoteChangeOnTheOtherInstances() {
+		TourChangedEvent event = TourChangedEvent.tourLog(1L, 2L, ChangeType.CREATED, 5);
+
+		first.onTourChanged(event);
+
+		verify(secondPublisher, timeout(5000)).publishEvent(new TourChangedEvent(1L, 2L, ChangeType.CREATED, true, 5, true));
+		verify(firstPublisher, after(200).never()).publishEvent(any(TourChangedEvent.class));
+	}
+
+	@Test
+	void check_withoutMessageForTheLastSeenVersion_invalidatesEverything() {
+		when(catalogVersionService.current()).thenReturn(3L);
+		second.check();
+		verify(secondPublisher, never()).publishEvent(any(CatalogInvalidatedEvent.class));
+
+		// version 3 was committed by an instance whose message never arrived
+		second.check();
+		verify(secondPublisher).publishEvent(any(CatalogInvalidatedEvent.class));
+	}
+
+	@Test
+	void check_afterMessageForTheLastSeenVersion_keepsTheCaches() {
+		when(catalogVersionService.current()).thenReturn(3L);
+		second.check();
+
+		second.handle(first.encode(TourChangedEvent.tour(1L, ChangeType.UPDATED, 3)));
+		second.check();
+
+		verify(secondPublisher, never()).publishEvent(any(CatalogInvalidatedEvent.class));
+	}
+}
@@ -0,0 +1,136 @@
+package com.tourplanner.backend.invalidation;
+
+import com.tourplanner.backend.dtos.CreateTourDto;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+import com.tourplanner.backend.entities.TourEntity;
+import com.tourplanner.backend.events.CatalogInvalidatedEvent;
+import com.tourplanner.backend.events.ChangeType;
+import com.tourplanner.backend.events.TourChangedEvent;
+import com.tourplanner.backend.repositories.ChangeLogRepository;
+import com.tourplanner.backend.repositories.TourRepository;
+import com.tourplanner.backend.services.CatalogVersionService;
+import com.tourplanner.backend.services.TourService;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Connects this context to a second instance through two {@link InvalidationBus}es on one in-memory channel.
+ * The second instance writes straight to the shared H2 database, bypassing the caches of this one, and
+ * broadcasts the change like a commit would.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheInvalidatorTest {
+
+	@Autowired
+	private TourService tourService;
+
+	@Autowired
+	private TourRepository tourRepository;
+
+	@Autowired
+	private ChangeLogRepository changeLogRepository;
+
+	@Autowired
+	private CatalogVersionService catalogVersionService;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<BlockingQueue<String>> subscribers = new CopyOnWriteArrayList<>();
+
+	private InvalidationBus localBus;
+
+	private InvalidationBus remoteBus;
+
+	private Long tourId;
+
+	@BeforeEach
+	void setUp() throws InterruptedException {
+		tourService.createTour(new CreateTourDto("Tour", "Description", "Vienna, Austria", "Graz, Austria", "driving-car", 100f, 2f));
+		tourId = Collections.max(tourRepository.findAllIds());
+		localBus = new InvalidationBus(new InMemoryInvalidationChannel(subscribers), eventPublisher,
+				catalogVersionService, Duration.ofHours(1));
+		// the other instance, whose own caches are not part of the test
+		remoteBus = new InvalidationBus(new InMemoryInvalidationChannel(subscribers), event -> {
+		}, catalogVersionService, Duration.ofHours(1));
+		localBus.start();
+		remoteBus.start();
+		await(() -> subscribers.size() == 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		localBus.shutdown();
+		remoteBus.shutdown();
+	}
+
+	@Test
+	void remoteTourUpdate_evictsTheTour() throws InterruptedException {
+		assertThat(tourRepository.findById(tourId).orElseThrow().getName()).isEqualTo("Tour");
+		assertThat(cache().contains(TourEntity.class, tourId)).isTrue();
+
+		jdbcTemplate.update("update tours set name = 'Renamed remotely', version = version + 1 where id = ?", tourId);
+		remoteBus.onTourChanged(TourChangedEvent.tour(tourId, ChangeType.UPDATED, catalogVersionService.current() + 1));
+
+		await(() -> !cache().contains(TourEntity.class, tourId));
+		assertThat(tourRepository.findById(tourId).orElseThrow().getName()).isEqualTo("Renamed remotely");
+	}
+
+	@Test
+	void remoteTourLogChange_dropsTheCachedQueryResults() throws InterruptedException {
+		tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+		long version = changeLogRepository.findTourVersion(tourId).orElseThrow();
+
+		jdbcTemplate.update("insert into change_log (id, tour_id, tour_log_id, version, change_type) values (?, ?, null, ?, 'UPDATED')",
+				Long.MAX_VALUE - tourId, tourId, version + 1);
+		assertThat(changeLogRepository.findTourVersion(tourId)).contains(version);
+		remoteBus.onTourChanged(TourChangedEvent.tour(tourId, ChangeType.UPDATED, version + 1));
+
+		await(() -> changeLogRepository.findTourVersion(tourId).orElseThrow() == version + 1);
+	}
+
+	@Test
+	void catalogInvalidated_evictsEverything() {
+		tourRepository.findById(tourId).orElseThrow();
+
+		eventPublisher.publishEvent(new CatalogInvalidatedEvent("test"));
+
+		assertThat(cache().contains(TourEntity.class, tourId)).isFalse();
+	}
+
+	private Cache cache() {
+		return entityManagerFactory.getCache();
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.currentTimeMillis()).as("time waited for the condition").isLessThan(deadline);
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.tourplanner.backend.metrics;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the annotated test if its body does not run exactly the given number of SQL statements. Statements
+ * of {@code @BeforeEach} methods are not counted.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryCountExtension.class)
+public @interface ExpectedQueries {
+	int value();
+}
@@ -0,0 +1,35 @@
+package com.tourplanner.backend.metrics;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Counts the SQL statements of a test body through the application's {@link StatementCounter} and checks
+ * them against {@link ExpectedQueries}. Requests performed with MockMvc run on the test thread, so their
+ * statements are included.
+ */
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryCountExtension.class);
+
+	@Override
+	public void beforeTestExecution(ExtensionContext context) {
+		StatementCounter statementCounter = SpringExtension.getApplicationContext(context).getBean(StatementCounter.class);
+		context.getStore(NAMESPACE).put(context.getUniqueId(), statementCounter.open());
+	}
+
+	@Override
+	public void afterTestExecution(ExtensionContext context) {
+		StatementCounter.Scope scope = context.getStore(NAMESPACE).remove(context.getUniqueId(), StatementCounter.Scope.class);
+		scope.close();
+		ExpectedQueries expected = context.getRequiredTestMethod().getAnnotation(ExpectedQueries.class);
+		if (expected != null && context.getExecutionException().isEmpty()) {
+			assertThat(scope.count())
+					.as("SQL statements of " + context.getDisplayName())
+					.isEqualTo(expected.value());
+		}
+	}
+}
@@ -3,18 +3,32 @@ package com.tourplanner.backend.services;
 import com.tourplanner.backend.dtos.*;
 import com.tourplanner.backend.entities.TourEntity;
 import com.tourplanner.backend.entities.TourLogEntity;
+import com.tourplanner.backend.entities.TourStatsEntity;
+import com.tourplanner.backend.events.ChangeType;
+import com.tourplanner.backend.events.TourChangedEvent;
+import com.tourplanner.backend.repositories.TourLogPageQuery;
 import com.tourplanner.backend.repositories.TourLogRepository;
+import com.tourplanner.backend.repositories.TourLogRow;
+import com.tourplanner.backend.repositories.TourPageQuery;
+import com.tourplanner.backend.repositories.TourSortField;
 import com.tourplanner.backend.repositories.TourRepository;
+import com.tourplanner.backend.repositories.TourRow;
+import com.tourplanner.backend.validation.TourValidator;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -28,6 +42,24 @@ class TourServiceTest {
 	@Mock
 	private TourLogRepository tourLogRepository;
 
+	@Mock
+	private TourStatsService tourStatsService;
+
+	@Mock
+	private CatalogVersionService catalogVersionService;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private EntityManager entityManager;
+
+	@Spy
+	private TourCache tourCache = new TourCache(100, 10, Duration.ofMinutes(5));
+
+	@Spy
+	private TourValidator tourValidator = new TourValidator();
+
 	@InjectMocks
 	private TourService tourService;
 
@@ -50,9 +82,92 @@ class TourServiceTest {
 	}
 
 	@Test
-	void deleteTour_deletesById() {
+	void createTours_withOneInvalidTour_savesNothing() {
+		List<CreateTourDto> dtos = List.of(
+				new CreateTourDto("Tour", "Desc", "Vienna, Austria", "Graz, Austria", "driving-car", 100f, 2f),
+				new CreateTourDto("Tour", "Desc", "Vienna, Austria", "Graz, Austria", "flying-dragon", 100f, 2f)
+		);
+		assertThatThrownBy(() -> tourService.createTours(dtos)).isInstanceOf(ResponseStatusException.class);
+		verify(tourRepository, never()).saveAll(any());
+	}
+
+	@Test
+	void createTourLogs_savesInBatchesAndUpdatesStatsOnce() {
+		TourEntity tour = new TourEntity();
+		tour.setId(1L);
+		when(tourRepository.findById(1L)).thenReturn(Optional.of(tour));
+		List<CreateTourLogDto> dtos = new java.util.ArrayList<>();
+		for (int i = 0; i < TourService.FLUSH_INTERVAL + 1; i++) {
+			dtos.add(new CreateTourLogDto("2025-05-25", "Comment", "Easy", 2f, 1f, 4));
+		}
+
+		tourService.createTourLogs(1L, dtos);
+
+		verify(tourLogRepository, times(2)).saveAll(any());
+		verify(entityManager, times(2)).clear();
+		verify(tourStatsService).logsAdded(1L, dtos.size(), 4L * dtos.size(), 2.0 * dtos.size(), 1.0 * dtos.size());
+	}
+
+	@Test
+	void createTourLogs_ofSeveralTours_skipsMissingToursAndIncrementsTheVersionOnce() {
+		TourEntity tour = new TourEntity();
+		tour.setId(1L);
+		when(tourRepository.findExistingIds(any())).thenReturn(List.of(1L));
+		when(tourRepository.getReferenceById(1L)).thenReturn(tour);
+		CreateTourLogDto dto = new CreateTourLogDto("2025-05-25", "Comment", "Easy", 2f, 1f, 4);
+		java.util.Map<Long, List<CreateTourLogDto>> dtosByTour = new java.util.LinkedHashMap<>();
+		dtosByTour.put(1L, List.of(dto, dto));
+		dtosByTour.put(2L, List.of(dto));
+
+		assertThat(tourService.createTourLogs(dtosByTour)).containsExactly(2L);
+
+		verify(tourLogRepository, times(1)).saveAll(any());
+		verify(tourStatsService).logsAdded(1L, 2, 8L, 4.0, 2.0);
+		verify(tourStatsService, never()).logsAdded(eq(2L), anyLong(), anyLong(), anyDouble(), anyDouble());
+		verify(catalogVersionService, times(1)).increment();
+	}
+
+	@Test
+	void deleteTour_deletesLogsStatsAndTourWithoutLoadingThem() {
+		when(tourRepository.deleteByIds(List.of(1L))).thenReturn(1);
+
 		tourService.deleteTour(1L);
-		verify(tourRepository).deleteById(1L);
+
+		org.mockito.InOrder order = inOrder(tourLogRepository, tourStatsService, tourRepository);
+		order.verify(tourLogRepository).deleteByTourIds(List.of(1L));
+		order.verify(tourStatsService).remove(List.of(1L));
+		order.verify(tourRepository).deleteByIds(List.of(1L));
+		verify(tourRepository, never()).findById(anyLong());
+		verify(tourLogRepository, never()).findByTourId(anyLong());
+		verify(eventPublisher).publishEvent(TourChangedEvent.tour(1L, ChangeType.DELETED, 0));
+	}
+
+	@Test
+	void deleteTour_withUnknownId_publishesNoChange() {
+		tourService.deleteTour(1L);
+
+		verify(eventPublisher, never()).publishEvent(any());
+	}
+
+	@Test
+	void deleteTours_deletesTheExistingToursInOneTransaction() {
+		when(tourRepository.findExistingIds(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+
+		tourService.deleteTours(List.of(1L, 2L, 3L));
+
+		verify(tourLogRepository).deleteByTourIds(List.of(1L, 3L));
+		verify(tourRepository).deleteByIds(List.of(1L, 3L));
+		verify(catalogVersionService, times(1)).increment();
+		verify(eventPublisher).publishEvent(TourChangedEvent.tour(1L, ChangeType.DELETED, 0));
+		verify(eventPublisher).publishEvent(TourChangedEvent.tour(3L, ChangeType.DELETED, 0));
+	}
+
+	@Test
+	void deleteTours_withTooManyIds_throwsBadRequest() {
+		List<Long> ids = java.util.stream.LongStream.rangeClosed(1, TourService.MAX_BULK_DELETE + 1).boxed().toList();
+
+		assertThatThrownBy(() -> tourService.deleteTours(ids)).isInstanceOf(ResponseStatusException.class);
+		verify(tourRepository, never()).deleteByIds(anyCollection());
 	}
 
 	@Test
@@ -66,7 +181,7 @@ class TourServiceTest {
 		TourDto result = tourService.updateTour(1L, dto);
 
 		assertThat(result.getName()).isEqualTo("New");
-		verify(tourRepository).save(any());
+		verify(tourRepository).saveAndFlush(any());
 	}
 
 	@Test
@@ -91,6 +206,8 @@ class TourServiceTest {
 
 		assertThat(result.getComment()).isEqualTo("Comment");
 		verify(tourLogRepository).save(any());
+		verify(tourStatsService).logAdded(any(TourLogEntity.class));
+		verify(catalogVersionService).increment();
 	}
 
 	@Test
@@ -113,25 +230,215 @@ class TourServiceTest {
 
 		assertThat(result.getComment()).isEqualTo("Hard");
 		verify(tourLogRepository).save(any());
+		verify(tourStatsService).logUpdated(1L, 4, 2f, 4f);
+	}
+
+	@Test
+	void deleteTourLog_removesLogFromStats() {
+		TourLogEntity log = new TourLogEntity();
+		log.setTour(new TourEntity());
+		log.getTour().setId(1L);
+		log.setId(2L);
+		when(tourLogRepository.findById(2L)).thenReturn(Optional.of(log));
+
+		tourService.deleteTourLog(1L, 2L);
+
+		verify(tourLogRepository).deleteById(2L);
+		verify(tourStatsService).logRemoved(log);
+		verify(eventPublisher).publishEvent(TourChangedEvent.tourLog(1L, 2L, ChangeType.DELETED, 0));
 	}
 
 	@Test
 	void getTours_returnsListOfDtos() {
-		when(tourRepository.findAll()).thenReturn(List.of(new TourEntity()));
-		when(tourLogRepository.findByTourId(anyLong())).thenReturn(List.of());
+		when(tourRepository.findPage(any())).thenReturn(List.of(TourRow.of(new TourEntity())));
+
+		TourPageDto page = tourService.getTours(new TourQueryDto());
+		assertThat(page.getItems()).isNotEmpty();
+		assertThat(page.getNextCursor()).isNull();
+	}
+
+	@Test
+	void getTours_loadsStatsOfAllToursWithOneQuery() {
+		List<TourEntity> entities = new java.util.ArrayList<>();
+		for (long id = 1; id <= 50; id++) {
+			TourEntity tour = new TourEntity("Tour " + id, "Desc", "Vienna, Austria", "Graz, Austria", "driving-car", 10f, 1f);
+			tour.setId(id);
+			entities.add(tour);
+		}
+		when(tourRepository.findPage(any())).thenReturn(entities.stream().map(TourRow::of).toList());
+		when(tourStatsService.findByTourIds(anyCollection())).thenReturn(Map.of(
+				1L, new TourStatsEntity(1L, 12, 54, 120.0, 12.0, LocalDateTime.now()),
+				2L, new TourStatsEntity(2L, 3, 6, 30.0, 3.0, LocalDateTime.now())
+		));
+
+		List<TourDto> tours = tourService.getTours(new TourQueryDto()).getItems();
+
+		assertThat(tours).hasSize(50);
+		assertThat(tours.get(0).getAvgRating()).isEqualTo(4.5f);
+		assertThat(tours.get(0).getPopularity()).isEqualTo("popular");
+		assertThat(tours.get(1).getPopularity()).isEqualTo("low");
+		assertThat(tours.get(2).getAvgRating()).isZero();
+		assertThat(tours.get(2).getPopularity()).isEqualTo("undefined");
+		verify(tourStatsService, times(1)).findByTourIds(anyCollection());
+		verify(tourLogRepository, never()).findByTourId(anyLong());
+	}
+
+	@Test
+	void getTours_servesRepeatedQueriesFromCacheUntilATourChanges() {
+		TourEntity tour = new TourEntity("Tour", "Desc", "Vienna, Austria", "Graz, Austria", "driving-car", 10f, 1f);
+		tour.setId(1L);
+		when(tourRepository.findPage(any())).thenReturn(List.of(TourRow.of(tour)));
+
+		tourService.getTours(new TourQueryDto());
+		tourService.getTours(new TourQueryDto());
+		verify(tourRepository, times(1)).findPage(any());
 
-		List<TourDto> tours = tourService.getTours();
-		assertThat(tours).isNotEmpty();
+		tourCache.onTourChanged(TourChangedEvent.tourLogUpdated(1L, 5L, false, 1));
+		tourService.getTours(new TourQueryDto());
+		verify(tourRepository, times(1)).findPage(any());
+
+		tourCache.onTourChanged(TourChangedEvent.tourLog(1L, 5L, ChangeType.CREATED, 2));
+		tourService.getTours(new TourQueryDto());
+		verify(tourRepository, times(2)).findPage(any());
+		verify(tourStatsService, times(2)).findByTourIds(anyCollection());
+		assertThat(tourCache.stats().getHits()).isEqualTo(2);
+	}
+
+	@Test
+	void getTours_continuesAfterTheLastTourOfThePreviousPage() {
+		List<TourEntity> entities = new java.util.ArrayList<>();
+		for (long id = 1; id <= 3; id++) {
+			TourEntity tour = new TourEntity("Tour " + id, "Desc", "Vienna, Austria", "Graz, Austria", "driving-car", id * 10f, 1f);
+			tour.setId(id);
+			entities.add(tour);
+		}
+		when(tourRepository.findPage(any())).thenReturn(entities.stream().map(TourRow::of).toList());
+		TourQueryDto query = new TourQueryDto();
+		query.setSort("distance");
+		query.setLimit(2);
+
+		TourPageDto first = tourService.getTours(query);
+		assertThat(first.getItems()).hasSize(2);
+		assertThat(first.getNextCursor()).isNotNull();
+
+		query.setCursor(first.getNextCursor());
+		tourService.getTours(query);
+
+		org.mockito.ArgumentCaptor<TourPageQuery> captor = org.mockito.ArgumentCaptor.forClass(TourPageQuery.class);
+		verify(tourRepository, times(2)).findPage(captor.capture());
+		TourPageQuery second = captor.getAllValues().get(1);
+		assertThat(second.sort()).isEqualTo(TourSortField.DISTANCE);
+		assertThat(second.afterId()).isEqualTo(2L);
+		assertThat(second.afterValue()).isEqualTo(20f);
+		assertThat(second.limit()).isEqualTo(3);
 	}
 
 	@Test
-	void generateAllToursPdf_returnsByteArray() {
-		TourEntity tour = new TourEntity("Tour", "Desc", "A", "B", "driving-car", 20f, 1f);
+	void getTours_withCursorOfAnotherSort_throwsBadRequest() {
+		TourEntity last = new TourEntity("B", "Desc", "A", "B", "driving-car", 1f, 1f);
+		last.setId(1L);
+		when(tourRepository.findPage(any())).thenReturn(List.of(TourRow.of(last), TourRow.of(new TourEntity())));
+		TourQueryDto query = new TourQueryDto();
+		query.setSort("name");
+		query.setLimit(1);
+		String cursor = tourService.getTours(query).getNextCursor();
+
+		query.setSort("distance");
+		query.setCursor(cursor);
+		assertThatThrownBy(() -> tourService.getTours(query)).isInstanceOf(ResponseStatusException.class);
+	}
+
+	@Test
+	void getTourLogs_continuesBeforeTheLastLogOfThePreviousPage() {
+		TourEntity tour = new TourEntity();
 		tour.setId(1L);
-		when(tourRepository.findAll()).thenReturn(List.of(tour));
-		when(tourLogRepository.findByTourId(1L)).thenReturn(Collections.emptyList());
+		List<TourLogEntity> logs = new java.util.ArrayList<>();
+		for (long id = 3; id >= 1; id--) {
+			TourLogEntity log = new TourLogEntity(LocalDateTime.of(2025, 5, (int) id, 0, 0), "Comment", "Easy", 1f, 1f, 3, tour);
+			log.setId(id);
+			logs.add(log);
+		}
+		when(tourLogRepository.findPage(any())).thenReturn(logs.stream().map(TourLogRow::of).toList());
+		TourLogQueryDto query = new TourLogQueryDto();
+		query.setLimit(2);
+		query.setTo("2025-05-31");
+
+		TourLogPageDto first = tourService.getTourLogs(1L, query);
+		assertThat(first.getItems()).extracting(TourLogDto::getId).containsExactly(3L, 2L);
+
+		query.setCursor(first.getNextCursor());
+		tourService.getTourLogs(1L, query);
+
+		org.mockito.ArgumentCaptor<TourLogPageQuery> captor = org.mockito.ArgumentCaptor.forClass(TourLogPageQuery.class);
+		verify(tourLogRepository, times(2)).findPage(captor.capture());
+		TourLogPageQuery second = captor.getAllValues().get(1);
+		assertThat(second.afterId()).isEqualTo(2L);
+		assertThat(second.afterDateTime()).isEqualTo(LocalDateTime.of(2025, 5, 2, 0, 0));
+		assertThat(second.to()).isEqualTo(LocalDateTime.of(2025, 6, 1, 0, 0));
+	}
+
+	@Test
+	void patchTour_updatesOnlyTheSuppliedFieldsWithoutLoadingTheTour() {
+		when(tourRepository.patch(eq(1L), anyMap(), eq(3L))).thenReturn(1);
+
+		PatchResultDto result = tourService.patchTour(1L, new PatchTourDto("New", null, null, "Linz, Austria", null, 12f, null), 3L);
+
+		verify(tourRepository).patch(1L, Map.of("name", "New", "endLocation", "Linz, Austria", "distance", 12f), 3L);
+		verify(tourRepository, never()).findById(anyLong());
+		verify(eventPublisher).publishEvent(TourChangedEvent.tour(1L, ChangeType.UPDATED, 0));
+		assertThat(result.getAffectedRows()).isEqualTo(1);
+		assertThat(result.getVersion()).isEqualTo(4L);
+	}
+
+	@Test
+	void patchTour_withInvalidSuppliedField_throwsBadRequest() {
+		assertThatThrownBy(() -> tourService.patchTour(1L, new PatchTourDto(null, null, "Vienna", null, null, null, null), null))
+				.isInstanceOf(ResponseStatusException.class);
+		verify(tourRepository, never()).patch(anyLong(), anyMap(), any());
+	}
+
+	@Test
+	void patchTour_withStaleVersion_throwsPreconditionFailed() {
+		when(tourRepository.findVersion(1L)).thenReturn(Optional.of(5L));
+
+		assertThatThrownBy(() -> tourService.patchTour(1L, new PatchTourDto("New", null, null, null, null, null, null), 3L))
+				.isInstanceOfSatisfying(ResponseStatusException.class, e ->
+						assertThat(e.getStatusCode().value()).isEqualTo(412));
+		verify(eventPublisher, never()).publishEvent(any());
+	}
+
+	@Test
+	void patchTourLog_ofAnotherTour_throwsNotFound() {
+		assertThatThrownBy(() -> tourService.patchTourLog(2L, 5L, new PatchTourLogDto(null, "Updated", null, null, null, null), null))
+				.isInstanceOfSatisfying(ResponseStatusException.class, e ->
+						assertThat(e.getStatusCode().value()).isEqualTo(404));
+		verify(tourLogRepository).patch(2L, 5L, Map.of("comment", "Updated"), null);
+		verify(tourLogRepository, never()).findVersion(anyLong(), anyLong());
+	}
+
+	@Test
+	void patchTourLog_withRating_movesTheStatisticsOfTheTourToTheNewRating() {
+		when(tourStatsService.logPatching(1L, 5L, 2, null, null, null)).thenReturn(true);
+		when(tourLogRepository.patch(eq(1L), eq(5L), anyMap(), isNull())).thenReturn(1);
+
+		PatchResultDto result = tourService.patchTourLog(1L, 5L, new PatchTourLogDto(null, null, null, null, null, 2), null);
+
+		InOrder inOrder = inOrder(tourStatsService, tourLogRepository);
+		inOrder.verify(tourStatsService).logPatching(1L, 5L, 2, null, null, null);
+		inOrder.verify(tourLogRepository).patch(eq(1L), eq(5L), anyMap(), isNull());
+		inOrder.verify(tourStatsService).logPatched(1L, true);
+		verify(eventPublisher).publishEvent(TourChangedEvent.tourLogUpdated(1L, 5L, true, 0));
+		assertThat(result.getAffectedRows()).isEqualTo(1);
+		assertThat(result.getVersion()).isNull();
+	}
+
+	@Test
+	void patchTourLog_withCommentOnly_leavesTheStatisticsAlone() {
+		when(tourLogRepository.patch(eq(1L), eq(5L), anyMap(), isNull())).thenReturn(1);
+
+		tourService.patchTourLog(1L, 5L, new PatchTourLogDto(null, "Updated", null, null, null, null), null);
 
-		byte[] pdf = tourService.generateAllToursPdf();
-		assertThat(pdf).isNotEmpty();
+		verifyNoInteractions(tourStatsService);
+		verify(eventPublisher).publishEvent(TourChangedEvent.tourLogUpdated(1L, 5L, false, 0));
 	}
 }
@@ -0,0 +1,106 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.ChangeDto;
+import com.tourplanner.backend.dtos.ChangeFeedDto;
+import com.tourplanner.backend.entities.ChangeLogEntity;
+import com.tourplanner.backend.events.ChangeType;
+import com.tourplanner.backend.repositories.ChangeLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChangeLogServiceTest {
+
+	@Mock
+	private ChangeLogRepository changeLogRepository;
+
+	@Mock
+	private CatalogVersionService catalogVersionService;
+
+	private ChangeLogService changeLogService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		changeLogService = new ChangeLogService(changeLogRepository, catalogVersionService, 100);
+		when(catalogVersionService.current()).thenReturn(9L);
+	}
+
+	@Test
+	void getChanges_withoutMoreChanges_returnsCurrentVersion() {
+		when(changeLogRepository.findByVersionGreaterThanOrderByVersionAscIdAsc(eq(5L), any(Limit.class)))
+				.thenReturn(List.of(change(6, 1L), change(8, 2L)));
+
+		ChangeFeedDto feed = changeLogService.getChanges(5, 10);
+
+		assertThat(feed.getVersion()).isEqualTo(9L);
+		assertThat(feed.isHasMore()).isFalse();
+		assertThat(feed.getChanges()).extracting(ChangeDto::getTourId).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void getChanges_beyondTheLimit_endsTheFeedAfterTheLastCompleteVersion() {
+		when(changeLogRepository.findByVersionGreaterThanOrderByVersionAscIdAsc(eq(0L), any(Limit.class)))
+				.thenReturn(List.of(change(1, 1L), change(2, 2L), change(2, 3L)));
+
+		ChangeFeedDto feed = changeLogService.getChanges(0, 2);
+
+		assertThat(feed.getVersion()).isEqualTo(1L);
+		assertThat(feed.isHasMore()).isTrue();
+		assertThat(feed.getChanges()).extracting(ChangeDto::getTourId).containsExactly(1L);
+	}
+
+	@Test
+	void getChanges_withOneVersionLargerThanTheLimit_returnsTheWholeVersion() {
+		when(changeLogRepository.findByVersionGreaterThanOrderByVersionAscIdAsc(eq(0L), any(Limit.class)))
+				.thenReturn(List.of(change(3, 1L), change(3, 2L)));
+		when(changeLogRepository.findByVersionOrderByIdAsc(3L))
+				.thenReturn(List.of(change(3, 1L), change(3, 2L), change(3, 3L)));
+
+		ChangeFeedDto feed = changeLogService.getChanges(0, 1);
+
+		assertThat(feed.getVersion()).isEqualTo(3L);
+		assertThat(feed.getChanges()).hasSize(3);
+	}
+
+	@Test
+	void getChanges_beforeTheRetainedVersions_isGone() {
+		changeLogService = new ChangeLogService(changeLogRepository, catalogVersionService, 5);
+
+		assertThatThrownBy(() -> changeLogService.getChanges(3, 10))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GONE));
+		assertThatCode(() -> changeLogService.getChanges(4, 10)).doesNotThrowAnyException();
+		verify(changeLogRepository, times(1)).findByVersionGreaterThanOrderByVersionAscIdAsc(anyLong(), any());
+	}
+
+	@Test
+	void prune_deletesTheVersionsBeforeTheRetainedOnes() {
+		changeLogService = new ChangeLogService(changeLogRepository, catalogVersionService, 5);
+
+		changeLogService.prune();
+
+		verify(changeLogRepository).deleteUpToVersion(4L);
+	}
+
+	@Test
+	void prune_withFewerVersionsThanRetained_deletesNothing() {
+		changeLogService.prune();
+
+		verify(changeLogRepository, never()).deleteUpToVersion(anyLong());
+	}
+
+	private ChangeLogEntity change(long version, Long tourId) {
+		return new ChangeLogEntity(version, tourId, null, ChangeType.CREATED);
+	}
+}
@@ -0,0 +1,79 @@
+package com.tourplanner.backend.services;
+
+import com.lowagie.text.Element;
+import com.lowagie.text.Paragraph;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReportFragmentCacheTest {
+	private static final List<Element> FRAGMENT = List.of(new Paragraph("Name: Tour"));
+
+	@Test
+	void put_afterAChangeOfAnotherTour_storesTheFragment() {
+		ReportFragmentCache cache = new ReportFragmentCache(DataSize.ofMegabytes(1), 10);
+		long stamp = cache.stamp();
+
+		cache.invalidate(2L);
+		cache.put(1L, FRAGMENT, stamp);
+		cache.put(2L, FRAGMENT, stamp);
+
+		assertThat(cache.get(1L)).isSameAs(FRAGMENT);
+		assertThat(cache.get(2L)).isNull();
+	}
+
+	@Test
+	void put_afterTheChangeIsForgotten_doesNotStoreFragmentsReadBeforeIt() {
+		ReportFragmentCache cache = new ReportFragmentCache(DataSize.ofMegabytes(1), 1);
+		long stamp = cache.stamp();
+
+		cache.invalidate(2L);
+		cache.invalidate(3L);
+		cache.put(2L, FRAGMENT, stamp);
+		cache.put(1L, FRAGMENT, cache.stamp());
+
+		assertThat(cache.get(2L)).isNull();
+		assertThat(cache.get(1L)).isSameAs(FRAGMENT);
+	}
+
+	@Test
+	void put_beyondTheMaxSize_evictsTheLeastRecentlyUsedFragments() {
+		List<Element> large = List.of(new Paragraph("x".repeat(1000)), new Paragraph("y".repeat(1000)));
+		long weight = ReportFragmentCache.weigh(large);
+		ReportFragmentCache cache = new ReportFragmentCache(DataSize.ofBytes(2 * weight + 1), 10);
+
+		cache.put(1L, large, cache.stamp());
+		cache.put(2L, large, cache.stamp());
+		cache.get(1L);
+		cache.put(3L, large, cache.stamp());
+
+		assertThat(cache.get(1L)).isSameAs(large);
+		assertThat(cache.get(2L)).isNull();
+		assertThat(cache.get(3L)).isSameAs(large);
+	}
+
+	@Test
+	void put_ofAFragmentLargerThanTheCache_keepsTheOthers() {
+		ReportFragmentCache cache = new ReportFragmentCache(DataSize.ofBytes(ReportFragmentCache.weigh(FRAGMENT)), 10);
+		cache.put(1L, FRAGMENT, cache.stamp());
+
+		cache.put(2L, List.of(new Paragraph("x".repeat(1000))), cache.stamp());
+
+		assertThat(cache.get(1L)).isSameAs(FRAGMENT);
+		assertThat(cache.get(2L)).isNull();
+	}
+
+	@Test
+	void put_afterInvalidateAll_doesNotStoreFragmentsReadBeforeIt() {
+		ReportFragmentCache cache = new ReportFragmentCache(DataSize.ofMegabytes(1), 10);
+		long stamp = cache.stamp();
+
+		cache.invalidateAll();
+		cache.put(1L, FRAGMENT, stamp);
+
+		assertThat(cache.get(1L)).isNull();
+	}
+}
@@ -0,0 +1,88 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.ReportJobDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+	@Mock
+	private TourReportService tourReportService;
+
+	@Mock
+	private CatalogVersionService catalogVersionService;
+
+	@TempDir
+	Path storeDirectory;
+
+	private ReportJobService reportJobService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		reportJobService = new ReportJobService(tourReportService, catalogVersionService, storeDirectory, 1, 4,
+				Duration.ofHours(1), 1024 * 1024);
+		doAnswer(inv -> {
+			inv.getArgument(0, OutputStream.class).write("%PDF-report".getBytes(StandardCharsets.US_ASCII));
+			return null;
+		}).when(tourReportService).writeAllToursPdf(any());
+	}
+
+	@Test
+	void submit_withUnchangedCatalog_reusesRenderedReport() throws InterruptedException {
+		when(catalogVersionService.current()).thenReturn(7L);
+
+		ReportJobDto first = reportJobService.submit();
+		awaitDone(first.getId());
+		ReportJobDto second = reportJobService.submit();
+
+		assertThat(second.getId()).isEqualTo(first.getId());
+		assertThat(second.getStatus()).isEqualTo("DONE");
+		assertThat(reportJobService.getArtifact(second.getId()).exists()).isTrue();
+		verify(tourReportService, times(1)).writeAllToursPdf(any());
+	}
+
+	@Test
+	void submit_afterRestart_reusesTheStoredArtifactOnce() throws InterruptedException {
+		when(catalogVersionService.current()).thenReturn(7L);
+		awaitDone(reportJobService.submit().getId());
+		ReportJobService restarted = new ReportJobService(tourReportService, catalogVersionService, storeDirectory, 1, 4,
+				Duration.ofHours(1), 1024 * 1024);
+
+		ReportJobDto first = restarted.submit();
+		ReportJobDto second = restarted.submit();
+
+		assertThat(first.getStatus()).isEqualTo("DONE");
+		assertThat(second.getId()).isEqualTo(first.getId());
+		verify(tourReportService, times(1)).writeAllToursPdf(any());
+		restarted.shutdown();
+	}
+
+	@Test
+	void submit_afterCatalogChange_rendersNewReport() throws InterruptedException {
+		when(catalogVersionService.current()).thenReturn(7L, 8L);
+
+		awaitDone(reportJobService.submit().getId());
+		awaitDone(reportJobService.submit().getId());
+
+		verify(tourReportService, times(2)).writeAllToursPdf(any());
+	}
+
+	private void awaitDone(String jobId) throws InterruptedException {
+		for (int i = 0; i < 100 && !"DONE".equals(reportJobService.getJob(jobId).getStatus()); i++) {
+			Thread.sleep(20);
+		}
+		assertThat(reportJobService.getJob(jobId).getStatus()).isEqualTo("DONE");
+	}
+}
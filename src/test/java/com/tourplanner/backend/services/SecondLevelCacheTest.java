@@ -0,0 +1,292 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.dtos.*;
+import com.tourplanner.backend.entities.TourEntity;
+import com.tourplanner.backend.entities.TourLogEntity;
+import com.tourplanner.backend.entities.TourStatsEntity;
+import com.tourplanner.backend.repositories.TourLogRepository;
+import com.tourplanner.backend.repositories.TourRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Mixes writes and reads through {@link TourService} and checks that the second-level and query cache are
+ * used and never serve a state other than the committed one. Runs against an in-memory H2 database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+	@Autowired
+	private TourService tourService;
+
+	@Autowired
+	private ChangeLogService changeLogService;
+
+	@Autowired
+	private TourStatsService tourStatsService;
+
+	@Autowired
+	private TourRepository tourRepository;
+
+	@Autowired
+	private TourLogRepository tourLogRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Statistics statistics;
+
+	private Long tourId;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		tourService.createTour(new CreateTourDto("Tour", "Description", "Vienna, Austria", "Graz, Austria", "driving-car", 100f, 2f));
+		tourId = Collections.max(tourRepository.findAllIds());
+		statistics.clear();
+	}
+
+	@Test
+	void updateTour_loadsTheTourFromTheCacheAndCachesTheNewState() {
+		tourService.updateTour(tourId, new UpdateTourDto("Renamed", "Description", "Vienna, Austria", "Linz, Austria", "cycling-regular", 180f, 9f));
+
+		assertThat(region(TourEntity.CACHE_REGION).getHitCount()).isEqualTo(1);
+		assertThat(region(TourEntity.CACHE_REGION).getMissCount()).isZero();
+		assertThat(tourRepository.findById(tourId).orElseThrow().getName()).isEqualTo("Renamed");
+		assertThat(region(TourEntity.CACHE_REGION).getHitCount()).isEqualTo(2);
+		TourQueryDto newestFirst = new TourQueryDto();
+		newestFirst.setDirection("desc");
+		assertThat(tourService.getTours(newestFirst).getItems())
+				.filteredOn(tour -> tour.getId().equals(tourId))
+				.extracting(TourDto::getName)
+				.containsExactly("Renamed");
+	}
+
+	@Test
+	void patchTour_replacesTheCachedTour() {
+		TourEntity cached = tourRepository.findById(tourId).orElseThrow();
+
+		PatchResultDto result = tourService.patchTour(tourId, new PatchTourDto("Patched", null, null, null, null, null, null),
+				cached.getVersion());
+
+		TourEntity patched = tourRepository.findById(tourId).orElseThrow();
+		assertThat(result.getAffectedRows()).isEqualTo(1);
+		assertThat(patched.getName()).isEqualTo("Patched");
+		assertThat(patched.getDescription()).isEqualTo("Description");
+		assertThat(patched.getVersion()).isEqualTo(result.getVersion());
+		assertThatThrownBy(() -> tourService.patchTour(tourId, new PatchTourDto("Again", null, null, null, null, null, null),
+				cached.getVersion())).isInstanceOf(ResponseStatusException.class);
+	}
+
+	@Test
+	void patchTour_keepsTheOtherToursCached() {
+		tourService.createTour(new CreateTourDto("Other", "Description", "Vienna, Austria", "Graz, Austria", "driving-car", 100f, 2f));
+		Long otherTourId = Collections.max(tourRepository.findAllIds());
+		tourRepository.findById(tourId).orElseThrow();
+		tourRepository.findById(otherTourId).orElseThrow();
+
+		tourService.patchTour(tourId, new PatchTourDto("Patched", null, null, null, null, null, null), null);
+
+		assertThat(entityManagerFactory.getCache().contains(TourEntity.class, tourId)).isFalse();
+		assertThat(entityManagerFactory.getCache().contains(TourEntity.class, otherTourId)).isTrue();
+		assertThat(tourRepository.findById(tourId).orElseThrow().getName()).isEqualTo("Patched");
+	}
+
+	@Test
+	void patchTourLog_updatesTheLogAndTheStatisticsOfItsTour() {
+		TourLogDto log = tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+
+		tourService.patchTourLog(tourId, log.getId(), new PatchTourLogDto(null, null, null, null, null, 2), log.getVersion());
+
+		assertThat(tourLogRepository.findById(log.getId()).orElseThrow().getRating()).isEqualTo(2);
+		assertThat(tourService.getTourLogs(tourId, new TourLogQueryDto()).getItems())
+				.extracting(TourLogDto::getRating, TourLogDto::getComment)
+				.containsExactly(tuple(2, "Comment"));
+		TourQueryDto newestFirst = new TourQueryDto();
+		newestFirst.setDirection("desc");
+		assertThat(tourService.getTours(newestFirst).getItems())
+				.filteredOn(tour -> tour.getId().equals(tourId))
+				.extracting(TourDto::getAvgRating)
+				.containsExactly(2f);
+	}
+
+	@Test
+	void patch_dropsTheCachedPagesOfThePatchedTable() {
+		TourLogDto log = tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+		tourService.getTourLogs(tourId, new TourLogQueryDto());
+		tourRepository.findVersion(tourId);
+
+		tourService.patchTourLog(tourId, log.getId(), new PatchTourLogDto(null, "Patched", null, null, null, null), null);
+		PatchResultDto patched = tourService.patchTour(tourId, new PatchTourDto("Patched", null, null, null, null, null, null), null);
+
+		assertThat(tourService.getTourLogs(tourId, new TourLogQueryDto()).getItems())
+				.extracting(TourLogDto::getComment)
+				.containsExactly("Patched");
+		assertThat(tourRepository.findVersion(tourId)).contains(tourRepository.findById(tourId).orElseThrow().getVersion());
+		assertThat(patched.getAffectedRows()).isEqualTo(1);
+	}
+
+	@Test
+	void patchTourLog_movesTheSumsOfItsTourFromTheOldValuesToTheNewOnes() {
+		tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-24", "Other", "Easy", 10f, 1f, 5));
+		TourLogDto log = tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+
+		tourService.patchTourLog(tourId, log.getId(), new PatchTourLogDto(null, null, null, 30f, null, 1), null);
+		assertThatThrownBy(() -> tourService.patchTourLog(tourId, log.getId(),
+				new PatchTourLogDto(null, null, null, 99f, 9f, 3), log.getVersion()))
+				.isInstanceOf(ResponseStatusException.class);
+
+		TourStatsEntity stats = tourStatsService.findByTourId(tourId).orElseThrow();
+		assertThat(stats.getLogCount()).isEqualTo(2);
+		assertThat(stats.getRatingSum()).isEqualTo(6);
+		assertThat(stats.getTotalDistance()).isEqualTo(40.0);
+		assertThat(stats.getTotalTime()).isEqualTo(3.0);
+		assertThat(stats.getAvgRating()).isEqualTo(3.0);
+	}
+
+	@Test
+	void rolledBackChange_isNotServedFromTheCache() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			tourRepository.findById(tourId).orElseThrow().setName("Rolled back");
+			tourRepository.flush();
+			status.setRollbackOnly();
+		});
+
+		assertThat(tourRepository.findById(tourId).orElseThrow().getName()).isEqualTo("Tour");
+	}
+
+	@Test
+	void tourLogs_reflectUpdatesAndDeletesMadeThroughTheService() {
+		TourLogDto log = tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+		UpdateTourLogDto update = new UpdateTourLogDto("2025-05-26", "Updated", "Hard", 60f, 3f, 2);
+
+		tourService.updateTourLog(tourId, log.getId(), update);
+		assertThat(region(TourLogEntity.CACHE_REGION).getHitCount()).isEqualTo(1);
+		assertThat(tourLogRepository.findById(log.getId()).orElseThrow().getComment()).isEqualTo("Updated");
+		assertThat(tourService.getTourLogs(tourId, new TourLogQueryDto()).getItems())
+				.extracting(TourLogDto::getComment)
+				.containsExactly("Updated");
+
+		tourService.deleteTourLog(tourId, log.getId());
+		assertThat(tourLogRepository.findById(log.getId())).isEmpty();
+		assertThatThrownBy(() -> tourService.updateTourLog(tourId, log.getId(), update))
+				.isInstanceOf(ResponseStatusException.class);
+	}
+
+	@Test
+	void updateTourLog_ofAnotherTour_isRejectedWithTheCachedLog() {
+		TourLogDto log = tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+		tourService.createTour(new CreateTourDto("Other", "Description", "Vienna, Austria", "Graz, Austria", "driving-car", 100f, 2f));
+		Long otherTourId = Collections.max(tourRepository.findAllIds());
+
+		assertThatThrownBy(() -> tourService.updateTourLog(otherTourId, log.getId(),
+				new UpdateTourLogDto("2025-05-26", "Updated", "Hard", 60f, 3f, 2)))
+				.isInstanceOf(ResponseStatusException.class);
+		assertThat(tourLogRepository.findById(log.getId()).orElseThrow().getComment()).isEqualTo("Comment");
+	}
+
+	@Test
+	void deleteTour_removesTheCachedTourAndItsLogs() {
+		TourLogDto log = tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+		assertThat(tourLogRepository.findById(log.getId())).isPresent();
+
+		tourService.deleteTours(List.of(tourId));
+
+		assertThat(tourRepository.findById(tourId)).isEmpty();
+		assertThat(tourLogRepository.findById(log.getId())).isEmpty();
+		assertThat(tourService.getTourLogs(tourId, new TourLogQueryDto()).getItems()).isEmpty();
+	}
+
+	@Test
+	void tourVersion_isServedFromTheQueryCacheUntilTheNextChange() {
+		long version = changeLogService.tourVersion(tourId);
+		assertThat(changeLogService.tourVersion(tourId)).isEqualTo(version);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+		tourService.updateTour(tourId, new UpdateTourDto("Renamed", "Description", "Vienna, Austria", "Linz, Austria", "cycling-regular", 180f, 9f));
+
+		assertThat(changeLogService.tourVersion(tourId)).isGreaterThan(version);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void tourLogPage_isServedFromTheQueryCacheUntilALogChanges() {
+		tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+		tourService.getTourLogs(tourId, new TourLogQueryDto());
+		long hits = statistics.getQueryCacheHitCount();
+
+		assertThat(tourService.getTourLogs(tourId, new TourLogQueryDto()).getItems()).hasSize(1);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 1);
+
+		tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-26", "Second", "Hard", 20f, 1f, 3));
+		hits = statistics.getQueryCacheHitCount();
+
+		assertThat(tourService.getTourLogs(tourId, new TourLogQueryDto()).getItems())
+				.extracting(TourLogDto::getComment)
+				.containsExactly("Second", "Comment");
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits);
+	}
+
+	@Test
+	void tourFinders_areServedFromTheQueryCacheUntilATourChanges() {
+		tourRepository.findAllIds();
+		tourRepository.findVersion(tourId);
+		tourRepository.findExistingIds(List.of(tourId));
+		long hits = statistics.getQueryCacheHitCount();
+
+		assertThat(tourRepository.findAllIds()).contains(tourId);
+		assertThat(tourRepository.findVersion(tourId)).isPresent();
+		assertThat(tourRepository.findExistingIds(List.of(tourId))).containsExactly(tourId);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 3);
+
+		tourService.deleteTours(List.of(tourId));
+		hits = statistics.getQueryCacheHitCount();
+
+		assertThat(tourRepository.findAllIds()).doesNotContain(tourId);
+		assertThat(tourRepository.findVersion(tourId)).isEmpty();
+		assertThat(tourRepository.findExistingIds(List.of(tourId))).isEmpty();
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits);
+	}
+
+	@Test
+	void tourLogFinders_areServedFromTheQueryCacheUntilALogChanges() {
+		TourLogDto log = tourService.createTourLog(tourId, new CreateTourLogDto("2025-05-25", "Comment", "Medium", 50f, 2f, 4));
+		tourLogRepository.findByTourId(tourId);
+		tourLogRepository.findVersion(tourId, log.getId());
+		long hits = statistics.getQueryCacheHitCount();
+
+		assertThat(tourLogRepository.findByTourId(tourId)).hasSize(1);
+		assertThat(tourLogRepository.findVersion(tourId, log.getId())).contains(log.getVersion());
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 2);
+
+		tourService.deleteTourLog(tourId, log.getId());
+		hits = statistics.getQueryCacheHitCount();
+
+		assertThat(tourLogRepository.findByTourId(tourId)).isEmpty();
+		assertThat(tourLogRepository.findVersion(tourId, log.getId())).isEmpty();
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits);
+	}
+
+	private CacheRegionStatistics region(String regionName) {
+		return statistics.getCacheRegionStatistics(regionName);
+	}
+}
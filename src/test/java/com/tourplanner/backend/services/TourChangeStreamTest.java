@@ -0,0 +1,128 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.events.ChangeType;
+import com.tourplanner.backend.events.TourChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TourChangeStreamTest {
+
+	private TourChangeStream stream;
+
+	@AfterEach
+	void tearDown() {
+		stream.shutdown();
+	}
+
+	@Test
+	void onTourChanged_replacesTheQueuedEventsWithAResyncWhenTheBufferOverflows() throws Exception {
+		stream = new TourChangeStream(10, 2, 1, Duration.ofMinutes(30), Duration.ofHours(1), Duration.ofMinutes(1));
+		RecordingEmitter emitter = new RecordingEmitter(1);
+		stream.subscribe(List.of(), emitter);
+
+		stream.onTourChanged(changed(1));
+		assertThat(emitter.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+		for (long version = 2; version <= 4; version++) {
+			stream.onTourChanged(changed(version));
+		}
+		emitter.release.countDown();
+
+		emitter.awaitEvents(2);
+		assertThat(emitter.events).containsExactly("tour-changed 1", "resync");
+	}
+
+	@Test
+	void onTourChanged_dropsASubscriberThatStallsAndKeepsSendingToTheOthers() throws Exception {
+		stream = new TourChangeStream(10, 16, 1, Duration.ofMinutes(30), Duration.ofHours(1), Duration.ofMillis(100));
+		RecordingEmitter stalled = new RecordingEmitter(1);
+		RecordingEmitter healthy = new RecordingEmitter(0);
+		stream.subscribe(List.of(1L), stalled);
+		stream.subscribe(List.of(), healthy);
+
+		stream.onTourChanged(changed(1));
+		assertThat(stalled.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+		stream.onTourChanged(TourChangedEvent.tour(2L, ChangeType.UPDATED, 2));
+
+		healthy.awaitEvents(2);
+		assertThat(healthy.events).containsExactly("tour-changed 1", "tour-changed 2");
+		while (stream.subscriberCount() > 1) {
+			Thread.sleep(5);
+		}
+
+		stalled.release.countDown();
+
+		assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(stalled.events).containsExactly("tour-changed 1");
+		stream.onTourChanged(changed(3));
+		healthy.awaitEvents(3);
+		assertThat(healthy.events).endsWith("tour-changed 3");
+	}
+
+	private TourChangedEvent changed(long catalogVersion) {
+		return TourChangedEvent.tour(1L, ChangeType.UPDATED, catalogVersion);
+	}
+
+	/**
+	 * Records the names of the events sent to it, with the id of change events, and blocks in the first
+	 * {@code blockingSends} sends until {@link #release} is counted down, like a client that stops reading.
+	 */
+	private static class RecordingEmitter extends SseEmitter {
+		private final List<String> events = new CopyOnWriteArrayList<>();
+		private final CountDownLatch blocked = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final CountDownLatch completed = new CountDownLatch(1);
+		private int blockingSends;
+
+		private RecordingEmitter(int blockingSends) {
+			this.blockingSends = blockingSends;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			String event = builder.build().stream()
+					.map(data -> data.getData().toString())
+					.collect(Collectors.joining());
+			if (event.startsWith(":")) {
+				return;
+			}
+			String name = event.lines().filter(line -> line.startsWith("event:")).findFirst().orElseThrow().substring(6);
+			events.add(name.equals(TourChangeStream.CHANGE_EVENT)
+					? name + " " + event.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3)
+					: name);
+			if (blockingSends > 0) {
+				blockingSends--;
+				blocked.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException(e);
+				}
+			}
+		}
+
+		@Override
+		public synchronized void complete() {
+			super.complete();
+			completed.countDown();
+		}
+
+		private void awaitEvents(int count) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (events.size() < count && System.nanoTime() < deadline) {
+				Thread.sleep(5);
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.tourplanner.backend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tourplanner.backend.repositories.TourExportRow;
+import com.tourplanner.backend.repositories.TourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TourExportServiceTest {
+
+	@Mock
+	private TourRepository tourRepository;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private TourExportService tourExportService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		tourExportService = new TourExportService(tourRepository, objectMapper);
+		when(tourRepository.streamExportRows()).thenAnswer(inv -> Stream.of(
+				logRow(1L, 10L, "first"),
+				logRow(1L, 11L, "second, with \"quotes\""),
+				new TourExportRow(2L, "Empty", "No logs", "A", "B", "bike", 5f, 1f,
+						null, null, null, null, null, null, null)
+		));
+	}
+
+	@Test
+	void writeNdjson_writesOneLinePerTourWithNestedLogs() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		tourExportService.writeNdjson(out);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(lines).hasSize(2);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertThat(first.get("id").asLong()).isEqualTo(1L);
+		assertThat(first.get("tourLogs")).hasSize(2);
+		assertThat(first.get("tourLogs").get(1).get("comment").asText()).isEqualTo("second, with \"quotes\"");
+		assertThat(objectMapper.readTree(lines[1]).get("tourLogs")).isEmpty();
+	}
+
+	@Test
+	void writeCsv_writesOneLinePerLogAndEscapesFields() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		tourExportService.writeCsv(out);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(lines).hasSize(4);
+		assertThat(lines[0]).isEqualTo(TourExportService.CSV_HEADER);
+		assertThat(lines[2]).contains(",11,2025-05-01T10:00,\"second, with \"\"quotes\"\"\",");
+		assertThat(lines[3]).startsWith("2,Empty,").endsWith("1.0,,,,,,,");
+	}
+
+	private TourExportRow logRow(Long tourId, Long logId, String comment) {
+		return new TourExportRow(tourId, "Tour", "Description", "Vienna", "Graz", "car", 200f, 2.5f,
+				logId, LocalDateTime.of(2025, 5, 1, 10, 0), comment, "easy", 10f, 1f, 4);
+	}
+}
@@ -0,0 +1,139 @@
+package com.tourplanner.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+import com.tourplanner.backend.dtos.ImportReportDto;
+import com.tourplanner.backend.repositories.TourRepository;
+import com.tourplanner.backend.validation.TourValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TourLogImportServiceTest {
+
+	@Mock
+	private TourService tourService;
+
+	@Mock
+	private TourRepository tourRepository;
+
+	private TourLogImportService tourLogImportService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		tourLogImportService = new TourLogImportService(tourService, tourRepository, new TourValidator(),
+				new ObjectMapper());
+		when(tourRepository.existsById(1L)).thenReturn(true);
+		when(tourRepository.existsById(2L)).thenReturn(false);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void importCsv_reportsFailedLinesAndStoresTheRest() throws IOException {
+		String csv = """
+				tourId,dateTime,comment,difficulty,totalDistance,totalTime,rating
+				1,2025-05-01,"nice, sunny",Easy,10,2,5
+				2,2025-05-01,missing tour,Easy,10,2,5
+				1,2025-05-02,no rating,Easy,10,2,
+				1,2025-05-03,"said ""wow\""",Hard,12.5,3,4
+				1,2025-05-04,unknown difficulty,easy,10,2,5
+				""";
+
+		ImportReportDto report = tourLogImportService.importCsv(stream(csv));
+
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getFailed()).isEqualTo(3);
+		assertThat(report.getErrors()).extracting("line").containsExactly(3L, 4L, 6L);
+		ArgumentCaptor<Map<Long, List<CreateTourLogDto>>> captor = ArgumentCaptor.forClass(Map.class);
+		verify(tourService).createTourLogs(captor.capture());
+		assertThat(captor.getValue().get(1L)).extracting(CreateTourLogDto::getComment)
+				.containsExactly("nice, sunny", "said \"wow\"");
+		verify(tourRepository, times(1)).existsById(1L);
+	}
+
+	@Test
+	void importNdjson_flushesInFixedSizeBatches() throws IOException {
+		StringBuilder ndjson = new StringBuilder();
+		int records = TourLogImportService.BATCH_SIZE * 2 + 1;
+		for (int i = 0; i < records; i++) {
+			ndjson.append("{\"tourId\":1,\"dateTime\":\"2025-05-01\",\"comment\":\"log ").append(i)
+					.append("\",\"difficulty\":\"Easy\",\"totalDistance\":1,\"totalTime\":1,\"rating\":3}\n");
+		}
+		ndjson.append("{not json}\n");
+
+		ImportReportDto report = tourLogImportService.importNdjson(stream(ndjson.toString()));
+
+		assertThat(report.getImported()).isEqualTo(records);
+		assertThat(report.getFailed()).isEqualTo(1);
+		verify(tourService, times(3)).createTourLogs(anyMap());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void importCsv_keepsLineBreaksInQuotedFields() throws IOException {
+		String csv = "tourId,dateTime,comment,difficulty,totalDistance,totalTime,rating\r\n"
+				+ "1,2025-05-01,\"first line\r\nsecond line\",Easy,10,2,5\r\n"
+				+ "1,2025-05-02,\"broken\nrecord\",Easy,10,2\r\n"
+				+ "1,2025-05-03,last,Easy,10,2,5";
+
+		ImportReportDto report = tourLogImportService.importCsv(stream(csv));
+
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting("line").containsExactly(4L);
+		ArgumentCaptor<Map<Long, List<CreateTourLogDto>>> captor = ArgumentCaptor.forClass(Map.class);
+		verify(tourService).createTourLogs(captor.capture());
+		assertThat(captor.getValue().get(1L)).extracting(CreateTourLogDto::getComment)
+				.containsExactly("first line\r\nsecond line", "last");
+	}
+
+	@Test
+	void importCsv_rejectsARecordOverTheLengthLimit() {
+		String csv = "tourId,dateTime,comment,difficulty,totalDistance,totalTime,rating\n"
+				+ "1,2025-05-01,\"never closed,Easy,10,2,5\n"
+				+ "x".repeat(TourLogImportService.MAX_RECORD_LENGTH);
+
+		assertThatThrownBy(() -> tourLogImportService.importCsv(stream(csv)))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST))
+				.hasMessageContaining("line 2");
+	}
+
+	@Test
+	void importNdjson_storesTheToursOfABatchInOneCall() throws IOException {
+		when(tourRepository.existsById(3L)).thenReturn(true);
+		when(tourService.createTourLogs(anyMap())).thenReturn(Set.of(3L));
+		String ndjson = """
+				{"tourId":1,"dateTime":"2025-05-01","comment":"a","difficulty":"Easy","totalDistance":1,"totalTime":1,"rating":3}
+				{"tourId":3,"dateTime":"2025-05-01","comment":"b","difficulty":"Easy","totalDistance":1,"totalTime":1,"rating":3}
+				{"tourId":1,"dateTime":"2025-05-01","comment":"c","difficulty":"Easy","totalDistance":1,"totalTime":1,"rating":3}
+				""";
+
+		ImportReportDto report = tourLogImportService.importNdjson(stream(ndjson));
+
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting("line").containsExactly(2L);
+		assertThat(report.getErrors()).extracting("message").containsExactly("Tour 3 not found");
+		verify(tourService, times(1)).createTourLogs(anyMap());
+	}
+
+	private InputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
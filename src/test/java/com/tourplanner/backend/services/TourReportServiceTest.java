@@ -0,0 +1,96 @@
+package com.tourplanner.backend.services;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import com.tourplanner.backend.repositories.TourExportRow;
+import com.tourplanner.backend.repositories.TourRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TourReportServiceTest {
+
+	@Mock
+	private TourRepository tourRepository;
+
+	@Mock
+	private EntityManager entityManager;
+
+	private ReportFragmentCache fragmentCache;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private TourReportService tourReportService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		fragmentCache = new ReportFragmentCache(DataSize.ofMegabytes(1), 100);
+		meterRegistry = new SimpleMeterRegistry();
+		tourReportService = new TourReportService(tourRepository, entityManager, fragmentCache,
+				meterRegistry, 2);
+
+		TourExportRow first = new TourExportRow(1L, "Tour", "Desc", "A", "B", "driving-car", 20f, 1f,
+				null, null, null, null, null, null, null);
+		TourExportRow second = new TourExportRow(2L, "Other", "Desc", "A", "B", "foot-hiking", 5f, 2f,
+				10L, LocalDateTime.now(), "Nice", "Easy", 20f, 1f, 5);
+		when(tourRepository.streamAllIds()).thenAnswer(inv -> Stream.of(1L, 2L));
+		when(tourRepository.streamExportRows(List.of(1L, 2L))).thenAnswer(inv -> Stream.of(first, second));
+		when(tourRepository.streamExportRows(List.of(2L))).thenAnswer(inv -> Stream.of(second));
+	}
+
+	@Test
+	void writeAllToursPdf_writesPdfToStream() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		tourReportService.writeAllToursPdf(out);
+
+		assertThat(new String(out.toByteArray(), 0, 4, StandardCharsets.US_ASCII)).isEqualTo("%PDF");
+	}
+
+	@Test
+	void writeAllToursPdf_laysOutTitleAndToursAsOneContinuousDocument() throws IOException {
+		tourReportService.writeAllToursPdf(new ByteArrayOutputStream());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// the second report is built from cached fragments
+		tourReportService.writeAllToursPdf(out);
+
+		PdfReader reader = new PdfReader(out.toByteArray());
+		assertThat(reader.getNumberOfPages()).isEqualTo(1);
+		assertThat(new PdfTextExtractor(reader).getTextFromPage(1))
+				.contains("All Tours", "Name: Tour", "Name: Other", "Comment: Nice");
+		reader.close();
+	}
+
+	@Test
+	void writeAllToursPdf_recordsRenderTimeAndSize() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		tourReportService.writeAllToursPdf(out);
+
+		assertThat(meterRegistry.get("tourplanner.report.render").timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("tourplanner.report.size").summary().totalAmount()).isEqualTo(out.size());
+	}
+
+	@Test
+	void writeAllToursPdf_afterLogChange_rendersOnlyThatTourAgain() {
+		tourReportService.writeAllToursPdf(new ByteArrayOutputStream());
+		fragmentCache.invalidate(2L);
+		tourReportService.writeAllToursPdf(new ByteArrayOutputStream());
+
+		verify(tourRepository, times(1)).streamExportRows(List.of(1L, 2L));
+		verify(tourRepository, times(1)).streamExportRows(List.of(2L));
+	}
+}
@@ -0,0 +1,92 @@
+package com.tourplanner.backend.services;
+
+import com.tourplanner.backend.entities.TourStatsEntity;
+import com.tourplanner.backend.repositories.TourPageQuery;
+import com.tourplanner.backend.repositories.TourRepository;
+import com.tourplanner.backend.repositories.TourRow;
+import com.tourplanner.backend.repositories.TourSortField;
+import com.tourplanner.backend.repositories.TourStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Covers a tour written before {@code tour_stats} existed, inserted straight into the database with two logs
+ * and no statistics row.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TourStatsServiceTest {
+	private static final long LEGACY_TOUR_ID = 900_000;
+
+	@Autowired
+	private TourStatsService tourStatsService;
+
+	@Autowired
+	private TourStatsRepository tourStatsRepository;
+
+	@Autowired
+	private TourRepository tourRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("insert into tours (id, name, description, start_location, end_location, transport_type, "
+				+ "distance, estimated_time, version) values (?, 'Legacy', 'Description', 'Vienna, Austria', "
+				+ "'Graz, Austria', 'driving-car', 100, 2, 0)", LEGACY_TOUR_ID);
+		jdbcTemplate.update("insert into tour_logs (id, tour_id, date_time, comment, difficulty, total_distance, "
+				+ "total_time, rating, version) values (?, ?, '2025-05-24 00:00:00', 'First', 'Easy', 10, 1, 5, 0), "
+				+ "(?, ?, '2025-05-25 00:00:00', 'Second', 'Hard', 30, 2, 2, 0)",
+				LEGACY_TOUR_ID, LEGACY_TOUR_ID, LEGACY_TOUR_ID + 1, LEGACY_TOUR_ID);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("delete from tour_stats where tour_id = ?", LEGACY_TOUR_ID);
+		jdbcTemplate.update("delete from tour_logs where tour_id = ?", LEGACY_TOUR_ID);
+		jdbcTemplate.update("delete from tours where id = ?", LEGACY_TOUR_ID);
+	}
+
+	@Test
+	void findByTourIds_computesTheStatisticsOfATourWithoutARow() {
+		TourStatsEntity stats = tourStatsService.findByTourIds(List.of(LEGACY_TOUR_ID)).get(LEGACY_TOUR_ID);
+
+		assertThat(stats.getLogCount()).isEqualTo(2);
+		assertThat(stats.getAvgRating()).isEqualTo(3.5);
+		assertThat(tourStatsRepository.existsById(LEGACY_TOUR_ID)).isFalse();
+	}
+
+	@Test
+	void findPage_byRating_keepsATourWithoutARowAtARatingOfZero() {
+		List<Long> ascending = tourRepository.findPage(new TourPageQuery(TourSortField.AVG_RATING, false, null, null,
+				null, 0.0, null, null, 1000)).stream().map(TourRow::id).toList();
+		List<Long> afterCursor = tourRepository.findPage(new TourPageQuery(TourSortField.AVG_RATING, false, null, null,
+				null, null, LEGACY_TOUR_ID - 1, 0.0, 1000)).stream().map(TourRow::id).toList();
+
+		assertThat(ascending).contains(LEGACY_TOUR_ID);
+		assertThat(afterCursor).contains(LEGACY_TOUR_ID);
+	}
+
+	@Test
+	void backfill_createsTheMissingRowsFromTheLogs() {
+		tourStatsService.backfill();
+
+		TourStatsEntity stats = tourStatsRepository.findById(LEGACY_TOUR_ID).orElseThrow();
+		assertThat(stats.getLogCount()).isEqualTo(2);
+		assertThat(stats.getRatingSum()).isEqualTo(7);
+		assertThat(stats.getTotalDistance()).isEqualTo(40.0);
+		assertThat(stats.getTotalTime()).isEqualTo(3.0);
+		assertThat(stats.getAvgRating()).isEqualTo(3.5);
+		assertThat(stats.getLastLogDate()).hasToString("2025-05-25T00:00");
+	}
+}
@@ -0,0 +1,78 @@
+package com.tourplanner.backend.validation;
+
+import com.tourplanner.backend.dtos.CreateTourDto;
+import com.tourplanner.backend.dtos.CreateTourLogDto;
+import com.tourplanner.backend.dtos.PatchTourDto;
+import com.tourplanner.backend.dtos.PatchTourLogDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TourValidatorTest {
+
+	private static final String CITY_AND_COUNTRY_REGEX = "^[A-Z][a-zA-ZäöüÄÖÜß\\s'-]+,\\s[A-Z][a-zA-ZäöüÄÖÜß\\s'-]+$";
+
+	private final TourValidator tourValidator = new TourValidator();
+
+	@Test
+	void validate_withValidTour_returnsNoViolations() {
+		CreateTourDto dto = new CreateTourDto("Tour", "Desc", "Vienna, Austria", "Sankt Pölten, Austria", "foot-hiking", 10f, 1f);
+
+		assertThat(tourValidator.validate(dto)).isEmpty();
+	}
+
+	@Test
+	void validate_reportsEveryViolationOfATour() {
+		CreateTourDto dto = new CreateTourDto("", "Desc", "Vienna", "Graz, Austria", "flying-dragon", -1f, 1f);
+
+		assertThat(tourValidator.validate(dto))
+				.extracting(Violation::field)
+				.containsExactly("name", "from", "transportType", "distance");
+	}
+
+	@Test
+	void validate_reportsEveryViolationOfATourLog() {
+		CreateTourLogDto dto = new CreateTourLogDto("25.05.2025", null, "easy", 1f, 1f, 6);
+
+		assertThat(tourValidator.validate(dto))
+				.extracting(Violation::field)
+				.containsExactly("dateTime", "comment", "difficulty", "rating");
+	}
+
+	@Test
+	void validate_checksOnlyTheSuppliedFieldsOfAPatch() {
+		assertThat(tourValidator.validate(new PatchTourDto(null, null, null, "Graz, Austria", null, 5f, null))).isEmpty();
+		assertThat(tourValidator.validate(new PatchTourDto("", null, "Vienna", null, null, null, -1f)))
+				.extracting(Violation::field)
+				.containsExactly("name", "from", "estTime");
+		assertThat(tourValidator.validate(new PatchTourLogDto(null, null, null, null, null, 0)))
+				.extracting(Violation::field)
+				.containsExactly("rating");
+	}
+
+	@Test
+	void isCityAndCountry_matchesLikeTheRegularExpression() {
+		List<String> samples = List.of("Vienna, Austria", "Wiener Neustadt, Austria", "Köln, Germany",
+				"St. Gallen, Switzerland", "Vienna,Austria", "vienna, Austria", "V, Austria", "Vienna, A",
+				"Vienna, Austria, Europe", "Vienna,  Austria", "Vienna,\tAustria", "O'Brien-Town, Ireland",
+				"Vienna, Österreich", "Vienna, Austria ", ", Austria", "Vienna, ", "");
+
+		for (String sample : samples) {
+			assertThat(TourValidator.isCityAndCountry(sample)).as(sample).isEqualTo(sample.matches(CITY_AND_COUNTRY_REGEX));
+		}
+	}
+
+	@Test
+	void parseDate_acceptsOnlyYearMonthDay() {
+		assertThat(tourValidator.parseDate("2025-05-25")).isEqualTo(LocalDate.of(2025, 5, 25));
+		assertThat(tourValidator.parseDate("2025-02-30")).isEqualTo(LocalDate.of(2025, 2, 28));
+		assertThat(tourValidator.parseDate("2025-13-01")).isNull();
+		assertThat(tourValidator.parseDate("2025-05-32")).isNull();
+		assertThat(tourValidator.parseDate("2025-5-25")).isNull();
+		assertThat(tourValidator.parseDate("2025-05-25T10:00")).isNull();
+		assertThat(tourValidator.parseDate(null)).isNull();
+	}
+}